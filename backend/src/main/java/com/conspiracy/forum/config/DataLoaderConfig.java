@@ -0,0 +1,81 @@
+package com.conspiracy.forum.config;
+
+import com.conspiracy.forum.dto.ConnectionKey;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.service.TheoryService;
+import com.conspiracy.forum.service.UserService;
+import com.conspiracy.forum.util.CursorUtils;
+import com.conspiracy.forum.util.PaginationUtils;
+import graphql.relay.Connection;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.graphql.execution.BatchLoaderRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Loaders are keyed by id rather than by entity: the Lombok-generated hashCode
+// of the entities walks lazy associations and is unsafe as a DataLoader key.
+@Configuration
+@RequiredArgsConstructor
+public class DataLoaderConfig {
+
+    public static final String COMMENTS_BY_THEORY = "commentsByTheory";
+    public static final String REPLIES_BY_PARENT = "repliesByParent";
+    public static final String THEORIES_BY_AUTHOR = "theoriesByAuthor";
+    public static final String COMMENTS_BY_AUTHOR = "commentsByAuthor";
+    public static final String REPUTATION_BY_USER = "reputationByUser";
+
+    private final BatchLoaderRegistry batchLoaderRegistry;
+    private final UserService userService;
+    private final CommentService commentService;
+    private final TheoryService theoryService;
+
+    @PostConstruct
+    public void registerBatchLoaders() {
+        batchLoaderRegistry.forTypePair(Long.class, User.class)
+                .registerMappedBatchLoader((userIds, env) ->
+                        Mono.fromCallable(() -> userService.getUsersByIds(userIds)));
+
+        batchLoaderRegistry.<Long, Integer>forName(REPUTATION_BY_USER)
+                .registerMappedBatchLoader((userIds, env) ->
+                        Mono.fromCallable(() -> userService.getReputationsByIds(userIds)));
+
+        batchLoaderRegistry.forTypePair(Long.class, Comment.class)
+                .registerMappedBatchLoader((commentIds, env) ->
+                        Mono.fromCallable(() -> commentService.getCommentsByIds(commentIds)));
+
+        batchLoaderRegistry.<Long, List<Comment>>forName(COMMENTS_BY_THEORY)
+                .registerMappedBatchLoader((theoryIds, env) ->
+                        Mono.fromCallable(() -> commentService.getCommentsByTheories(theoryIds)));
+
+        batchLoaderRegistry.<Long, List<Comment>>forName(REPLIES_BY_PARENT)
+                .registerMappedBatchLoader((parentIds, env) ->
+                        Mono.fromCallable(() -> commentService.getRepliesByParentIds(parentIds)));
+
+        batchLoaderRegistry.<ConnectionKey, Connection<Theory>>forName(THEORIES_BY_AUTHOR)
+                .registerMappedBatchLoader((keys, env) -> Mono.fromCallable(() -> toConnections(
+                        theoryService.getTheoriesByAuthors(keys),
+                        theory -> CursorUtils.encode(theory.getPostedAt(), theory.getId()))));
+
+        batchLoaderRegistry.<ConnectionKey, Connection<Comment>>forName(COMMENTS_BY_AUTHOR)
+                .registerMappedBatchLoader((keys, env) -> Mono.fromCallable(() -> toConnections(
+                        commentService.getCommentsByAuthors(keys),
+                        comment -> CursorUtils.encode(comment.getPostedAt(), comment.getId()))));
+    }
+
+    private static <T> Map<ConnectionKey, Connection<T>> toConnections(Map<ConnectionKey, List<T>> rowsByKey,
+                                                                       Function<T, String> cursorOf) {
+        Map<ConnectionKey, Connection<T>> connections = new HashMap<>();
+        rowsByKey.forEach((key, rows) -> connections.put(key,
+                PaginationUtils.toConnection(rows, key.first(), key.after() != null, cursorOf)));
+        return connections;
+    }
+}
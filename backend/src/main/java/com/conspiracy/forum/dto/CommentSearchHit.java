@@ -0,0 +1,11 @@
+package com.conspiracy.forum.dto;
+
+import com.conspiracy.forum.entity.Comment;
+
+// comment is only set by engines that had to load the entity to build the snippet
+public record CommentSearchHit(Long commentId, String snippet, Comment comment) {
+
+    public CommentSearchHit(Long commentId, String snippet) {
+        this(commentId, snippet, null);
+    }
+}
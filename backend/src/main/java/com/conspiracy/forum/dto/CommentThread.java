@@ -0,0 +1,51 @@
+package com.conspiracy.forum.dto;
+
+import com.conspiracy.forum.entity.Comment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class CommentThread {
+
+    private final List<Comment> rootComments;
+    private final Map<Long, List<Comment>> repliesByParentId;
+
+    private CommentThread(List<Comment> rootComments, Map<Long, List<Comment>> repliesByParentId) {
+        this.rootComments = rootComments;
+        this.repliesByParentId = repliesByParentId;
+    }
+
+    // Expects every comment of a single theory, oldest first. Replies keep that order
+    // while root comments are returned newest first, matching the per-level queries.
+    public static CommentThread of(List<Comment> commentsOldestFirst) {
+        List<Comment> rootComments = new ArrayList<>();
+        Map<Long, List<Comment>> repliesByParentId = new HashMap<>(commentsOldestFirst.size() * 2);
+
+        for (Comment comment : commentsOldestFirst) {
+            repliesByParentId.putIfAbsent(comment.getId(), new ArrayList<>());
+            if (comment.getParent() == null) {
+                rootComments.add(comment);
+            } else {
+                repliesByParentId.computeIfAbsent(comment.getParent().getId(), id -> new ArrayList<>()).add(comment);
+            }
+        }
+
+        Collections.reverse(rootComments);
+        return new CommentThread(rootComments, repliesByParentId);
+    }
+
+    public List<Comment> getRootComments() {
+        return rootComments;
+    }
+
+    public boolean contains(Long commentId) {
+        return repliesByParentId.containsKey(commentId);
+    }
+
+    public List<Comment> getReplies(Long commentId) {
+        return repliesByParentId.getOrDefault(commentId, List.of());
+    }
+}
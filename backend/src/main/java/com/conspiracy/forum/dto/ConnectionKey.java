@@ -0,0 +1,9 @@
+package com.conspiracy.forum.dto;
+
+public record ConnectionKey(Long ownerId, int first, String after) {
+
+    // Keys that only differ by owner can be answered by the same batched query
+    public ConnectionKey window() {
+        return new ConnectionKey(null, first, after);
+    }
+}
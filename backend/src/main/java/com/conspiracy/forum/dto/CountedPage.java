@@ -0,0 +1,20 @@
+package com.conspiracy.forum.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final boolean estimate;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, boolean estimate) {
+        super(content, pageable, total);
+        this.estimate = estimate;
+    }
+
+    public boolean isEstimate() {
+        return estimate;
+    }
+}
@@ -1,5 +1,7 @@
 package com.conspiracy.forum.dto;
 
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.enums.TheorySort;
 import com.conspiracy.forum.enums.TheoryStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -15,4 +17,6 @@ public class TheoryFilter {
     private String keyword;
     private Boolean hotOnly;
     private Integer minCommentCount;
+    private SearchOrder searchOrder;
+    private TheorySort sort;
 }
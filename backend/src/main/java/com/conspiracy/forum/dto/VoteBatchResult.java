@@ -0,0 +1,10 @@
+package com.conspiracy.forum.dto;
+
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+
+import java.util.List;
+
+// Every theory and comment the batch voted on, by id, with their counters after it
+public record VoteBatchResult(List<Theory> theories, List<Comment> comments) {
+}
@@ -0,0 +1,16 @@
+package com.conspiracy.forum.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class VoteInput {
+    private Long theoryId;
+    private Long commentId;
+    private Integer value;
+}
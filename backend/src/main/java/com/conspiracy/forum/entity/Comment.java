@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -13,6 +14,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "comments")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -57,4 +59,17 @@ public class Comment {
     @Column(name = "score")
     @Builder.Default
     private int score = 0;
+
+    @Column(name = "upvotes", nullable = false)
+    @Builder.Default
+    private int upvotes = 0;
+
+    @Column(name = "downvotes", nullable = false)
+    @Builder.Default
+    private int downvotes = 0;
+
+    // Which VoteCounterBuffer flush last added to the counters above
+    @Column(name = "counter_generation", nullable = false)
+    @Builder.Default
+    private long counterGeneration = 0;
 }
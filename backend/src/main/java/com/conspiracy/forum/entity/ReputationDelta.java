@@ -0,0 +1,34 @@
+package com.conspiracy.forum.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// One reputation change waiting to be rolled up into users.reputation; rows are only ever inserted
+// and deleted, by ReputationLedger
+@Entity
+@Table(name = "reputation_deltas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReputationDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int delta;
+
+    @Column(name = "created_at", nullable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
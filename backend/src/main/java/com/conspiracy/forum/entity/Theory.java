@@ -1,11 +1,14 @@
 package com.conspiracy.forum.entity;
 
 import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.util.ControversyUtils;
+import com.conspiracy.forum.util.HotScoreUtils;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -14,6 +17,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "theories")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -69,13 +73,60 @@ public class Theory {
     @Builder.Default
     private int score = 0;
 
-    public void incrementCommentCount() {
-        this.commentCount++;
+    @Column(name = "upvotes", nullable = false)
+    @Builder.Default
+    private int upvotes = 0;
+
+    @Column(name = "downvotes", nullable = false)
+    @Builder.Default
+    private int downvotes = 0;
+
+    // Which VoteCounterBuffer flush last added to the counters above
+    @Column(name = "counter_generation", nullable = false)
+    @Builder.Default
+    private long counterGeneration = 0;
+
+    @Column(name = "controversy", nullable = false)
+    @Builder.Default
+    private double controversy = 0;
+
+    @Column(name = "hot_score", nullable = false)
+    @Builder.Default
+    private double hotScore = 0;
+
+    // A value of 0 stands for no vote, before or after
+    public void applyVote(int previousValue, int newValue) {
+        this.score += newValue - previousValue;
+        this.upvotes += (newValue > 0 ? 1 : 0) - (previousValue > 0 ? 1 : 0);
+        this.downvotes += (newValue < 0 ? 1 : 0) - (previousValue < 0 ? 1 : 0);
+        this.controversy = ControversyUtils.compute(upvotes, downvotes);
+    }
+
+    // Copy for in-memory caches that outlives the session; the author stays a reference because
+    // only its id is read, through the user DataLoader
+    public Theory detachedCopy() {
+        return Theory.builder()
+                .id(id)
+                .title(title)
+                .content(content)
+                .status(status)
+                .evidenceUrls(new ArrayList<>(evidenceUrls))
+                .postedAt(postedAt)
+                .updatedAt(updatedAt)
+                .isAnonymousPost(isAnonymousPost)
+                .author(author)
+                .commentCount(commentCount)
+                .score(score)
+                .upvotes(upvotes)
+                .downvotes(downvotes)
+                .counterGeneration(counterGeneration)
+                .controversy(controversy)
+                .hotScore(hotScore)
+                .build();
     }
 
-    public void decrementCommentCount() {
-        if (this.commentCount > 0) {
-            this.commentCount--;
-        }
+    @PrePersist
+    public void refreshHotScore() {
+        this.hotScore = HotScoreUtils.compute(score, commentCount, postedAt);
     }
 }
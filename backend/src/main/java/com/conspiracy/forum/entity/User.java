@@ -8,6 +8,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,6 +20,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "users")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -54,7 +56,9 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean anonymousMode = false;
 
-    @Column(name = "reputation")
+    // Rolled up by ReputationLedger, which alone writes it; ledger entries not folded in yet are only added
+    // where the total is shown, through UserService.getReputationsByIds
+    @Column(name = "reputation", updatable = false)
     @Builder.Default
     private int reputation = 0;
 
@@ -66,6 +70,13 @@ public class User implements UserDetails {
     @Builder.Default
     private boolean mustChangePassword = false;
 
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private int tokenVersion = 0;
+
+    @Column(name = "tokens_revoked_at")
+    private LocalDateTime tokensRevokedAt;
+
     @OneToMany(mappedBy = "author", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Theory> theories = new ArrayList<>();
@@ -37,7 +37,11 @@ public class Vote {
     private Comment comment;
 
     @Column(name = "vote_value", nullable = false)
-    private int value; // 1 for upvote, -1 for downvote
+    private int value; // 1 for upvote, -1 for downvote, 0 once withdrawn
+
+    // What the last change replaced, so an upsert can report it
+    @Column(name = "previous_value", nullable = false)
+    private int previousValue;
 
     @CreationTimestamp
     @Column(name = "created_at")
@@ -0,0 +1,6 @@
+package com.conspiracy.forum.enums;
+
+public enum SearchOrder {
+    RELEVANCE,
+    RECENT
+}
@@ -0,0 +1,8 @@
+package com.conspiracy.forum.enums;
+
+public enum TheorySort {
+    NEW,
+    TOP,
+    HOT,
+    CONTROVERSIAL
+}
@@ -1,20 +1,107 @@
 package com.conspiracy.forum.repository;
 
 import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.search.SearchDocument;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByTheoryIdOrderByPostedAtDesc(Long theoryId);
-    List<Comment> findByTheoryIdAndParentIsNullOrderByPostedAtDesc(Long theoryId);
-    List<Comment> findByParentIdOrderByPostedAtAsc(Long parentId);
-    Page<Comment> findByTheoryId(Long theoryId, Pageable pageable);
+
+    interface CommentSnippet {
+        Long getId();
+        String getSnippet();
+    }
+
+    List<Comment> findByTheoryIdOrderByPostedAtDescIdDesc(Long theoryId);
+    List<Comment> findByTheoryIdOrderByPostedAtAscIdAsc(Long theoryId);
+    List<Comment> findByParentIdInOrderByPostedAtAscIdAsc(Collection<Long> parentIds);
+    Slice<Comment> findByTheoryId(Long theoryId, Pageable pageable);
     Page<Comment> findByTheoryIdAndParentIsNull(Long theoryId, Pageable pageable);
     Page<Comment> findByAuthorId(Long authorId, Pageable pageable);
     int countByTheoryId(Long theoryId);
+
+    @Query("SELECT c.id FROM Comment c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Comment c SET c.score = c.score + :score, c.upvotes = c.upvotes + :upvotes, " +
+           "c.downvotes = c.downvotes + :downvotes WHERE c.id = :id")
+    int addVotes(@Param("id") Long id,
+                 @Param("score") int score,
+                 @Param("upvotes") int upvotes,
+                 @Param("downvotes") int downvotes);
+
+    @Query("SELECT c FROM Comment c WHERE c.theory.id = :theoryId " +
+           "AND (c.postedAt < :postedBefore OR (c.postedAt = :postedBefore AND c.id < :idBefore)) " +
+           "ORDER BY c.postedAt DESC, c.id DESC")
+    List<Comment> findByTheoryIdBefore(@Param("theoryId") Long theoryId,
+                                       @Param("postedBefore") LocalDateTime postedBefore,
+                                       @Param("idBefore") long idBefore,
+                                       Limit limit);
+
+    @Query(value = "SELECT c.* FROM comments c JOIN (" +
+                   "SELECT id, ROW_NUMBER() OVER (PARTITION BY theory_id ORDER BY posted_at DESC, id DESC) AS rn " +
+                   "FROM comments WHERE theory_id IN (:theoryIds)) ranked ON ranked.id = c.id " +
+                   "WHERE ranked.rn <= :limit " +
+                   "ORDER BY c.posted_at DESC, c.id DESC",
+           nativeQuery = true)
+    List<Comment> findLatestByTheoryIds(@Param("theoryIds") Collection<Long> theoryIds,
+                                        @Param("limit") int limitPerTheory);
+
+    @Query(value = "SELECT c.* FROM comments c JOIN (" +
+                   "SELECT id, ROW_NUMBER() OVER (PARTITION BY author_id ORDER BY posted_at DESC, id DESC) AS rn " +
+                   "FROM comments WHERE author_id IN (:authorIds) " +
+                   "AND (posted_at < :postedBefore OR (posted_at = :postedBefore AND id < :idBefore))) ranked " +
+                   "ON ranked.id = c.id " +
+                   "WHERE ranked.rn <= :limit " +
+                   "ORDER BY c.posted_at DESC, c.id DESC",
+           nativeQuery = true)
+    List<Comment> findLatestByAuthorIds(@Param("authorIds") Collection<Long> authorIds,
+                                        @Param("postedBefore") LocalDateTime postedBefore,
+                                        @Param("idBefore") long idBefore,
+                                        @Param("limit") int limitPerAuthor);
+
+    @Query("SELECT c FROM Comment c WHERE (:theoryId IS NULL OR c.theory.id = :theoryId) " +
+           "AND LOWER(c.content) LIKE CONCAT('%', LOWER(:keyword), '%')")
+    List<Comment> searchByKeyword(@Param("keyword") String keyword,
+                                  @Param("theoryId") Long theoryId,
+                                  Pageable pageable);
+
+    // Escaped like SnippetUtils before ts_headline, so its <b> markers are the only markup in a snippet; the
+    // parser reads each entity as one token and never cuts a fragment inside it
+    String ESCAPED_CONTENT = "replace(replace(replace(replace(replace(c.content, " +
+                             "'&', '&amp;'), '<', '&lt;'), '>', '&gt;'), '\"', '&quot;'), '''', '&#39;')";
+
+    // ts_headline only runs over the page picked by the inner, index-backed query. Without a theory, a common
+    // term walks idx_comments_posted_at_id and stops at the page; a rare one sorts its GIN matches. A term
+    // in between costs up to the smaller of the two, and deep offsets are paid for row by row either way
+    @Query(value = "SELECT c.id AS id, ts_headline('english', " + ESCAPED_CONTENT + ", q, " +
+                   "'StartSel=<b>, StopSel=</b>, MaxFragments=1, MaxWords=30, MinWords=10') AS snippet " +
+                   "FROM (SELECT id, content, posted_at FROM comments " +
+                   "WHERE search_vector @@ websearch_to_tsquery('english', :query) " +
+                   "AND (CAST(:theoryId AS BIGINT) IS NULL OR theory_id = CAST(:theoryId AS BIGINT)) " +
+                   "ORDER BY posted_at DESC, id DESC LIMIT :limit OFFSET :offset) c, " +
+                   "websearch_to_tsquery('english', :query) q " +
+                   "ORDER BY c.posted_at DESC, c.id DESC",
+           nativeQuery = true)
+    List<CommentSnippet> searchSnippets(@Param("query") String query,
+                                        @Param("theoryId") Long theoryId,
+                                        @Param("limit") int limit,
+                                        @Param("offset") long offset);
+
+    @Query("SELECT new com.conspiracy.forum.search.SearchDocument(c.id, c.content, c.theory.id, c.postedAt) " +
+           "FROM Comment c WHERE c.id > :afterId ORDER BY c.id")
+    List<SearchDocument> findSearchDocuments(@Param("afterId") long afterId, Pageable pageable);
 }
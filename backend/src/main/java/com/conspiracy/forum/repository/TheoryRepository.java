@@ -2,21 +2,46 @@ package com.conspiracy.forum.repository;
 
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.search.SearchDocument;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TheoryRepository extends JpaRepository<Theory, Long> {
+
+    String FULL_TEXT_COUNT_QUERY = "SELECT COUNT(*) FROM theories t " +
+            "WHERE t.search_vector @@ websearch_to_tsquery('english', :query) " +
+            "AND (CAST(:status AS VARCHAR) IS NULL OR t.status = CAST(:status AS VARCHAR))";
     
     Page<Theory> findByAuthorId(Long authorId, Pageable pageable);
     
     Page<Theory> findByStatus(TheoryStatus status, Pageable pageable);
+
+    Slice<Theory> findAllBy(Pageable pageable);
+
+    Slice<Theory> findAllByStatus(TheoryStatus status, Pageable pageable);
+
+    long countByStatus(TheoryStatus status);
+
+    long countByCommentCountGreaterThanEqual(int minComments);
+
+    // Planner statistics; -1 until the table has been analyzed
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('theories' AS regclass)",
+           nativeQuery = true)
+    Long estimateRowCount();
     
     @Query("SELECT t FROM Theory t WHERE " +
            "(:status IS NULL OR t.status = :status) AND " +
@@ -25,12 +50,182 @@ public interface TheoryRepository extends JpaRepository<Theory, Long> {
     Page<Theory> findByFilters(@Param("status") TheoryStatus status, 
                                @Param("keyword") String keyword, 
                                Pageable pageable);
+
+    @Query("SELECT t FROM Theory t WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(LOWER(t.title) LIKE CONCAT('%', LOWER(:keyword), '%') OR " +
+           "LOWER(t.content) LIKE CONCAT('%', LOWER(:keyword), '%'))")
+    Slice<Theory> findSliceByFilters(@Param("status") TheoryStatus status,
+                                     @Param("keyword") String keyword,
+                                     Pageable pageable);
+
+    @Query("SELECT COUNT(t) FROM Theory t WHERE " +
+           "(:status IS NULL OR t.status = :status) AND " +
+           "(LOWER(t.title) LIKE CONCAT('%', LOWER(:keyword), '%') OR " +
+           "LOWER(t.content) LIKE CONCAT('%', LOWER(:keyword), '%'))")
+    long countByFilters(@Param("status") TheoryStatus status, @Param("keyword") String keyword);
+
+    @Query(value = FULL_TEXT_COUNT_QUERY, nativeQuery = true)
+    long countFullTextMatches(@Param("query") String query, @Param("status") String status);
     
-    @Query("SELECT t FROM Theory t WHERE t.commentCount >= :minComments ORDER BY t.commentCount DESC")
-    Page<Theory> findHotTheories(@Param("minComments") int minComments, Pageable pageable);
+    @Query(value = "SELECT t.* FROM theories t, websearch_to_tsquery('english', :query) q " +
+                   "WHERE t.search_vector @@ q " +
+                   "AND (CAST(:status AS VARCHAR) IS NULL OR t.status = CAST(:status AS VARCHAR)) " +
+                   "ORDER BY ts_rank(t.search_vector, q) DESC, t.posted_at DESC, t.id DESC",
+           countQuery = FULL_TEXT_COUNT_QUERY,
+           nativeQuery = true)
+    Page<Theory> searchByRelevance(@Param("query") String query,
+                                   @Param("status") String status,
+                                   Pageable pageable);
+
+    @Query(value = "SELECT t.* FROM theories t, websearch_to_tsquery('english', :query) q " +
+                   "WHERE t.search_vector @@ q " +
+                   "AND (CAST(:status AS VARCHAR) IS NULL OR t.status = CAST(:status AS VARCHAR)) " +
+                   "ORDER BY ts_rank(t.search_vector, q) DESC, t.posted_at DESC, t.id DESC",
+           nativeQuery = true)
+    Slice<Theory> searchSliceByRelevance(@Param("query") String query,
+                                         @Param("status") String status,
+                                         Pageable pageable);
+
+    @Query(value = "SELECT t.* FROM theories t " +
+                   "WHERE t.search_vector @@ websearch_to_tsquery('english', :query) " +
+                   "AND (CAST(:status AS VARCHAR) IS NULL OR t.status = CAST(:status AS VARCHAR)) " +
+                   "ORDER BY t.posted_at DESC, t.id DESC",
+           countQuery = FULL_TEXT_COUNT_QUERY,
+           nativeQuery = true)
+    Page<Theory> searchByRecency(@Param("query") String query,
+                                 @Param("status") String status,
+                                 Pageable pageable);
+
+    @Query(value = "SELECT t.* FROM theories t " +
+                   "WHERE t.search_vector @@ websearch_to_tsquery('english', :query) " +
+                   "AND (CAST(:status AS VARCHAR) IS NULL OR t.status = CAST(:status AS VARCHAR)) " +
+                   "ORDER BY t.posted_at DESC, t.id DESC",
+           nativeQuery = true)
+    Slice<Theory> searchSliceByRecency(@Param("query") String query,
+                                       @Param("status") String status,
+                                       Pageable pageable);
+
+    @Query("SELECT t FROM Theory t WHERE t.commentCount >= :minComments ORDER BY t.hotScore DESC, t.id DESC")
+    Slice<Theory> findHotTheoriesSlice(@Param("minComments") int minComments, Pageable pageable);
     
-    @Query("SELECT t FROM Theory t ORDER BY t.commentCount DESC")
-    Page<Theory> findAllOrderByCommentCountDesc(Pageable pageable);
+    @Query("SELECT t FROM Theory t ORDER BY t.hotScore DESC, t.id DESC")
+    Slice<Theory> findAllOrderByHotScoreDesc(Pageable pageable);
+
+    @Query("SELECT t.id FROM Theory t ORDER BY t.hotScore DESC, t.id DESC")
+    List<Long> findHottestIds(Limit limit);
+
+    @Query("SELECT t.id FROM Theory t WHERE t.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "evidenceUrls")
+    List<Theory> findWithEvidenceUrlsByIdIn(Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "evidenceUrls")
+    Optional<Theory> findWithEvidenceUrlsById(Long id);
+
+    // Counter changes in one statement, without reading the row, so concurrent writers never lose each other's
+    // updates. SET expressions see the row as it was, hence the deltas repeated in the derived columns, which
+    // mirror ControversyUtils.compute and HotScoreUtils.compute.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Theory t SET t.score = t.score + :score, t.upvotes = t.upvotes + :upvotes, " +
+           "t.downvotes = t.downvotes + :downvotes, " +
+           "t.controversy = CASE WHEN t.upvotes + :upvotes <= 0 OR t.downvotes + :downvotes <= 0 THEN 0.0 " +
+           "ELSE power(t.upvotes + :upvotes + t.downvotes + :downvotes, " +
+           "least(t.upvotes + :upvotes, t.downvotes + :downvotes) * 1.0 / " +
+           "greatest(t.upvotes + :upvotes, t.downvotes + :downvotes)) END, " +
+           "t.hotScore = sign(t.score + :score + :commentWeight * t.commentCount) * " +
+           "log10(1 + abs(t.score + :score + :commentWeight * t.commentCount)) + " +
+           "extract(epoch from t.postedAt) / :secondsPerOrder " +
+           "WHERE t.id = :id")
+    int addVotes(@Param("id") Long id,
+                 @Param("score") int score,
+                 @Param("upvotes") int upvotes,
+                 @Param("downvotes") int downvotes,
+                 @Param("commentWeight") int commentWeight,
+                 @Param("secondsPerOrder") double secondsPerOrder);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Theory t SET t.commentCount = t.commentCount + :delta, " +
+           "t.hotScore = sign(t.score + :commentWeight * (t.commentCount + :delta)) * " +
+           "log10(1 + abs(t.score + :commentWeight * (t.commentCount + :delta))) + " +
+           "extract(epoch from t.postedAt) / :secondsPerOrder " +
+           "WHERE t.id = :id")
+    int addComments(@Param("id") Long id,
+                    @Param("delta") int delta,
+                    @Param("commentWeight") int commentWeight,
+                    @Param("secondsPerOrder") double secondsPerOrder);
+
+    // Re-derives what the vote counters feed once VoteCounterBuffer has added its deltas; mirrors
+    // ControversyUtils.compute and HotScoreUtils.compute
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Theory t SET t.controversy = CASE WHEN t.upvotes <= 0 OR t.downvotes <= 0 THEN 0.0 " +
+           "ELSE power(t.upvotes + t.downvotes, least(t.upvotes, t.downvotes) * 1.0 / greatest(t.upvotes, t.downvotes)) END, " +
+           "t.hotScore = sign(t.score + :commentWeight * t.commentCount) * " +
+           "log10(1 + abs(t.score + :commentWeight * t.commentCount)) + " +
+           "extract(epoch from t.postedAt) / :secondsPerOrder " +
+           "WHERE t.id IN :ids")
+    int refreshVoteRankings(@Param("ids") Collection<Long> ids,
+                            @Param("commentWeight") int commentWeight,
+                            @Param("secondsPerOrder") double secondsPerOrder);
     
     List<Theory> findByAuthorIdOrderByPostedAtDesc(Long authorId);
+
+    @Query("SELECT t FROM Theory t WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (t.postedAt < :postedBefore OR (t.postedAt = :postedBefore AND t.id < :idBefore)) " +
+           "ORDER BY t.postedAt DESC, t.id DESC")
+    List<Theory> findLatestBefore(@Param("status") TheoryStatus status,
+                                  @Param("postedBefore") LocalDateTime postedBefore,
+                                  @Param("idBefore") long idBefore,
+                                  Limit limit);
+
+    // Keyset pages for the other TheorySort orders, each read off its (column DESC, id DESC) index
+    @Query("SELECT t FROM Theory t WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (t.score < :scoreBefore OR (t.score = :scoreBefore AND t.id < :idBefore)) " +
+           "ORDER BY t.score DESC, t.id DESC")
+    List<Theory> findTopBefore(@Param("status") TheoryStatus status,
+                               @Param("scoreBefore") int scoreBefore,
+                               @Param("idBefore") long idBefore,
+                               Limit limit);
+
+    @Query("SELECT t FROM Theory t WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (t.hotScore < :scoreBefore OR (t.hotScore = :scoreBefore AND t.id < :idBefore)) " +
+           "ORDER BY t.hotScore DESC, t.id DESC")
+    List<Theory> findHotBefore(@Param("status") TheoryStatus status,
+                               @Param("scoreBefore") double scoreBefore,
+                               @Param("idBefore") long idBefore,
+                               Limit limit);
+
+    @Query("SELECT t FROM Theory t WHERE (:status IS NULL OR t.status = :status) " +
+           "AND (t.controversy < :scoreBefore OR (t.controversy = :scoreBefore AND t.id < :idBefore)) " +
+           "ORDER BY t.controversy DESC, t.id DESC")
+    List<Theory> findMostControversialBefore(@Param("status") TheoryStatus status,
+                                             @Param("scoreBefore") double scoreBefore,
+                                             @Param("idBefore") long idBefore,
+                                             Limit limit);
+
+    @Query("SELECT t FROM Theory t WHERE t.commentCount >= :minComments " +
+           "AND (t.hotScore < :scoreBefore OR (t.hotScore = :scoreBefore AND t.id < :idBefore)) " +
+           "ORDER BY t.hotScore DESC, t.id DESC")
+    List<Theory> findHottestBefore(@Param("minComments") int minComments,
+                                   @Param("scoreBefore") double scoreBefore,
+                                   @Param("idBefore") long idBefore,
+                                   Limit limit);
+
+    @Query(value = "SELECT t.* FROM theories t JOIN (" +
+                   "SELECT id, ROW_NUMBER() OVER (PARTITION BY author_id ORDER BY posted_at DESC, id DESC) AS rn " +
+                   "FROM theories WHERE author_id IN (:authorIds) " +
+                   "AND (posted_at < :postedBefore OR (posted_at = :postedBefore AND id < :idBefore))) ranked " +
+                   "ON ranked.id = t.id " +
+                   "WHERE ranked.rn <= :limit " +
+                   "ORDER BY t.posted_at DESC, t.id DESC",
+           nativeQuery = true)
+    List<Theory> findLatestByAuthorIds(@Param("authorIds") Collection<Long> authorIds,
+                                       @Param("postedBefore") LocalDateTime postedBefore,
+                                       @Param("idBefore") long idBefore,
+                                       @Param("limit") int limitPerAuthor);
+
+    @Query("SELECT new com.conspiracy.forum.search.SearchDocument(t.id, t.title, t.content, t.status, t.postedAt) " +
+           "FROM Theory t WHERE t.id > :afterId ORDER BY t.id")
+    List<SearchDocument> findSearchDocuments(@Param("afterId") long afterId, Pageable pageable);
 }
@@ -2,14 +2,38 @@ package com.conspiracy.forum.repository;
 
 import com.conspiracy.forum.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+
+    interface TokenVersion {
+        String getUsername();
+        int getTokenVersion();
+    }
+
+    interface Reputation {
+        Long getId();
+        int getReputation();
+    }
+
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
+    List<TokenVersion> findByTokensRevokedAtAfter(LocalDateTime since);
+
+    // The rolled-up total and the ledger rows not folded in yet, in one statement so a rollup committing
+    // in between can neither hide a delta nor count it twice
+    @Query("SELECT u.id AS id, u.reputation + COALESCE((SELECT SUM(d.delta) FROM ReputationDelta d " +
+           "WHERE d.userId = u.id), 0) AS reputation FROM User u WHERE u.id IN :ids")
+    List<Reputation> findReputationsByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -1,16 +1,14 @@
 package com.conspiracy.forum.repository;
 
-import com.conspiracy.forum.entity.Comment;
-import com.conspiracy.forum.entity.Theory;
-import com.conspiracy.forum.entity.User;
 import com.conspiracy.forum.entity.Vote;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface VoteRepository extends JpaRepository<Vote, Long> {
-    Optional<Vote> findByUserAndTheory(User user, Theory theory);
-    Optional<Vote> findByUserAndComment(User user, Comment comment);
+    List<Vote> findByUserIdAndTheoryIdIn(Long userId, Collection<Long> theoryIds);
+    List<Vote> findByUserIdAndCommentIdIn(Long userId, Collection<Long> commentIds);
 }
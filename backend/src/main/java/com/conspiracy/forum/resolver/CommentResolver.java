@@ -1,13 +1,23 @@
 package com.conspiracy.forum.resolver;
 
+import com.conspiracy.forum.config.DataLoaderConfig;
 import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.CommentThread;
 import com.conspiracy.forum.dto.PageInput;
 import com.conspiracy.forum.entity.Comment;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
 import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.service.VoteCounterBuffer;
+import com.conspiracy.forum.util.CursorUtils;
+import com.conspiracy.forum.util.PaginationUtils;
 import com.conspiracy.forum.util.SecurityUtils;
+import graphql.GraphQLContext;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
@@ -15,12 +25,18 @@ import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Controller
 @RequiredArgsConstructor
 public class CommentResolver {
 
+    private static final String COMMENT_THREADS = "commentThreads";
+
     private final CommentService commentService;
+    private final VoteCounterBuffer voteCounterBuffer;
 
     @QueryMapping
     public List<Comment> commentsByTheory(@Argument Long theoryId, @Argument PageInput page) {
@@ -31,8 +47,29 @@ public class CommentResolver {
     }
 
     @QueryMapping
-    public List<Comment> rootCommentsByTheory(@Argument Long theoryId) {
-        return commentService.getRootCommentsByTheory(theoryId);
+    public Connection<Comment> commentsByTheoryConnection(@Argument Long theoryId, @Argument Integer first,
+                                                          @Argument String after) {
+        int pageSize = PaginationUtils.resolveFirst(first);
+        return PaginationUtils.toConnection(commentService.getCommentsByTheoryAfter(theoryId, pageSize, after),
+                pageSize, after != null, comment -> CursorUtils.encode(comment.getPostedAt(), comment.getId()));
+    }
+
+    @QueryMapping
+    public List<Comment> rootCommentsByTheory(@Argument Long theoryId, GraphQLContext context) {
+        CommentThread thread = commentService.getCommentThread(theoryId);
+        Map<Long, CommentThread> threads = context.get(COMMENT_THREADS);
+        if (threads == null) {
+            threads = new ConcurrentHashMap<>();
+            context.put(COMMENT_THREADS, threads);
+        }
+        threads.put(theoryId, thread);
+        return thread.getRootComments();
+    }
+
+    @QueryMapping
+    public List<CommentSearchHit> searchComments(@Argument String query, @Argument Long theoryId,
+                                                 @Argument PageInput page) {
+        return commentService.searchComments(query, theoryId, page);
     }
 
     @QueryMapping
@@ -58,20 +95,45 @@ public class CommentResolver {
         return commentService.deleteComment(id, username);
     }
 
+    @SchemaMapping(typeName = "CommentSearchHit", field = "comment")
+    public CompletableFuture<Comment> getSearchHitComment(CommentSearchHit hit,
+                                                          DataLoader<Long, Comment> commentLoader) {
+        if (hit.comment() != null) {
+            return CompletableFuture.completedFuture(hit.comment());
+        }
+        return commentLoader.load(hit.commentId());
+    }
+
     @SchemaMapping(typeName = "Comment", field = "author")
-    public User getAuthor(Comment comment) {
+    public CompletableFuture<User> getAuthor(Comment comment, DataLoader<Long, User> userLoader) {
         if (comment.isAnonymousPost()) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
-        return comment.getAuthor();
+        return userLoader.load(comment.getAuthor().getId());
     }
 
     @SchemaMapping(typeName = "Comment", field = "authorName")
-    public String getAuthorName(Comment comment) {
+    public CompletableFuture<String> getAuthorName(Comment comment, DataLoader<Long, User> userLoader) {
         if (comment.isAnonymousPost()) {
-            return "Anonymous Truth Seeker";
+            return CompletableFuture.completedFuture("Anonymous Truth Seeker");
         }
-        return comment.getAuthor().getUsername();
+        return userLoader.load(comment.getAuthor().getId()).thenApply(User::getUsername);
+    }
+
+    // Same merge as Theory's counters
+    @SchemaMapping(typeName = "Comment", field = "score")
+    public int getScore(Comment comment) {
+        return comment.getScore() + voteCounterBuffer.pendingFor(comment).score();
+    }
+
+    @SchemaMapping(typeName = "Comment", field = "upvotes")
+    public int getUpvotes(Comment comment) {
+        return comment.getUpvotes() + voteCounterBuffer.pendingFor(comment).upvotes();
+    }
+
+    @SchemaMapping(typeName = "Comment", field = "downvotes")
+    public int getDownvotes(Comment comment) {
+        return comment.getDownvotes() + voteCounterBuffer.pendingFor(comment).downvotes();
     }
 
     @SchemaMapping(typeName = "Comment", field = "theory")
@@ -85,7 +147,17 @@ public class CommentResolver {
     }
 
     @SchemaMapping(typeName = "Comment", field = "replies")
-    public List<Comment> getReplies(Comment comment) {
-        return commentService.getReplies(comment.getId());
+    public CompletableFuture<List<Comment>> getReplies(Comment comment, GraphQLContext context,
+                                                      DataFetchingEnvironment env) {
+        // Threads loaded by rootCommentsByTheory in this request already hold every reply
+        Map<Long, CommentThread> threads = context.get(COMMENT_THREADS);
+        if (threads != null) {
+            CommentThread thread = threads.get(comment.getTheory().getId());
+            if (thread != null && thread.contains(comment.getId())) {
+                return CompletableFuture.completedFuture(thread.getReplies(comment.getId()));
+            }
+        }
+        DataLoader<Long, List<Comment>> repliesLoader = env.getDataLoader(DataLoaderConfig.REPLIES_BY_PARENT);
+        return repliesLoader.load(comment.getId());
     }
 }
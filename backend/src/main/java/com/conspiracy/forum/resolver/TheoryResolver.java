@@ -1,16 +1,23 @@
 package com.conspiracy.forum.resolver;
 
+import com.conspiracy.forum.config.DataLoaderConfig;
+import com.conspiracy.forum.dto.CountedPage;
 import com.conspiracy.forum.dto.PageInput;
 import com.conspiracy.forum.dto.TheoryFilter;
 import com.conspiracy.forum.dto.TheoryInput;
 import com.conspiracy.forum.entity.Comment;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
-import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.enums.TheorySort;
 import com.conspiracy.forum.service.TheoryService;
+import com.conspiracy.forum.service.VoteCounterBuffer;
+import com.conspiracy.forum.util.CursorUtils;
+import com.conspiracy.forum.util.PaginationUtils;
 import com.conspiracy.forum.util.SecurityUtils;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
@@ -18,17 +25,40 @@ import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @Controller
 @RequiredArgsConstructor
 public class TheoryResolver {
 
     private final TheoryService theoryService;
-    private final CommentService commentService;
+    private final VoteCounterBuffer voteCounterBuffer;
 
     @QueryMapping
     public List<Theory> theories(@Argument TheoryFilter filter, @Argument PageInput page) {
-        return theoryService.getTheories(filter, page).getContent();
+        return theoryService.getTheorySlice(filter, page).getContent();
+    }
+
+    @QueryMapping
+    public Connection<Theory> theoriesConnection(@Argument TheoryFilter filter, @Argument Integer first,
+                                                 @Argument String after) {
+        int pageSize = PaginationUtils.resolveFirst(first);
+        List<Theory> rows = theoryService.getTheoriesAfter(filter, pageSize, after);
+        return PaginationUtils.toConnection(rows, pageSize, after != null, cursorOf(filter));
+    }
+
+    // The cursor carries the value the rows were ordered by, so the next page continues from it
+    private static Function<Theory, String> cursorOf(TheoryFilter filter) {
+        TheorySort sort = filter == null ? TheorySort.NEW
+                : Boolean.TRUE.equals(filter.getHotOnly()) ? TheorySort.HOT
+                : filter.getSort() != null ? filter.getSort() : TheorySort.NEW;
+        return switch (sort) {
+            case NEW -> theory -> CursorUtils.encode(theory.getPostedAt(), theory.getId());
+            case TOP -> theory -> CursorUtils.encode(theory.getScore(), theory.getId());
+            case HOT -> theory -> CursorUtils.encode(theory.getHotScore(), theory.getId());
+            case CONTROVERSIAL -> theory -> CursorUtils.encode(theory.getControversy(), theory.getId());
+        };
     }
 
     @QueryMapping
@@ -46,16 +76,29 @@ public class TheoryResolver {
         return theoryService.getHotTheories(page).getContent();
     }
 
+    @QueryMapping
+    public List<Theory> risingTheories(@Argument PageInput page) {
+        return theoryService.getRisingTheories(page);
+    }
+
+    @QueryMapping
+    public Connection<Theory> hotTheoriesConnection(@Argument Integer first, @Argument String after) {
+        int pageSize = PaginationUtils.resolveFirst(first);
+        return PaginationUtils.toConnection(theoryService.getHotTheoriesAfter(pageSize, after), pageSize,
+                after != null, theory -> CursorUtils.encode(theory.getHotScore(), theory.getId()));
+    }
+
     @QueryMapping
     public TheoriesPage theoriesPaginated(@Argument TheoryFilter filter, @Argument PageInput page) {
-        Page<Theory> result = theoryService.getTheories(filter, page);
+        CountedPage<Theory> result = theoryService.getTheories(filter, page);
         return new TheoriesPage(
                 result.getContent(),
                 result.getTotalElements(),
                 result.getTotalPages(),
                 result.getNumber() + 1,
                 result.hasNext(),
-                result.hasPrevious()
+                result.hasPrevious(),
+                result.isEstimate()
         );
     }
 
@@ -78,24 +121,41 @@ public class TheoryResolver {
     }
 
     @SchemaMapping(typeName = "Theory", field = "comments")
-    public List<Comment> getComments(Theory theory) {
-        return commentService.getCommentsByTheory(theory.getId());
+    public CompletableFuture<List<Comment>> getComments(Theory theory, DataFetchingEnvironment env) {
+        DataLoader<Long, List<Comment>> commentsLoader = env.getDataLoader(DataLoaderConfig.COMMENTS_BY_THEORY);
+        return commentsLoader.load(theory.getId());
     }
 
     @SchemaMapping(typeName = "Theory", field = "author")
-    public User getAuthor(Theory theory) {
+    public CompletableFuture<User> getAuthor(Theory theory, DataLoader<Long, User> userLoader) {
         if (theory.isAnonymousPost()) {
-            return null;
+            return CompletableFuture.completedFuture(null);
         }
-        return theory.getAuthor();
+        return userLoader.load(theory.getAuthor().getId());
     }
 
     @SchemaMapping(typeName = "Theory", field = "authorName")
-    public String getAuthorName(Theory theory) {
+    public CompletableFuture<String> getAuthorName(Theory theory, DataLoader<Long, User> userLoader) {
         if (theory.isAnonymousPost()) {
-            return "Anonymous Truth Seeker";
+            return CompletableFuture.completedFuture("Anonymous Truth Seeker");
         }
-        return theory.getAuthor().getUsername();
+        return userLoader.load(theory.getAuthor().getId()).thenApply(User::getUsername);
+    }
+
+    // Counters still waiting in the write-behind buffer, so a vote shows before its flush
+    @SchemaMapping(typeName = "Theory", field = "score")
+    public int getScore(Theory theory) {
+        return theory.getScore() + voteCounterBuffer.pendingFor(theory).score();
+    }
+
+    @SchemaMapping(typeName = "Theory", field = "upvotes")
+    public int getUpvotes(Theory theory) {
+        return theory.getUpvotes() + voteCounterBuffer.pendingFor(theory).upvotes();
+    }
+
+    @SchemaMapping(typeName = "Theory", field = "downvotes")
+    public int getDownvotes(Theory theory) {
+        return theory.getDownvotes() + voteCounterBuffer.pendingFor(theory).downvotes();
     }
 
     public record TheoriesPage(
@@ -104,6 +164,7 @@ public class TheoryResolver {
             int totalPages,
             int currentPage,
             boolean hasNext,
-            boolean hasPrevious
+            boolean hasPrevious,
+            boolean isEstimate
     ) {}
 }
@@ -1,14 +1,26 @@
 package com.conspiracy.forum.resolver;
 
+import com.conspiracy.forum.config.DataLoaderConfig;
+import com.conspiracy.forum.dto.ConnectionKey;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
 import com.conspiracy.forum.service.UserService;
+import com.conspiracy.forum.util.CursorUtils;
+import com.conspiracy.forum.util.PaginationUtils;
 import com.conspiracy.forum.util.SecurityUtils;
+import graphql.relay.Connection;
+import graphql.schema.DataFetchingEnvironment;
 import lombok.RequiredArgsConstructor;
+import org.dataloader.DataLoader;
 import org.springframework.graphql.data.method.annotation.Argument;
 import org.springframework.graphql.data.method.annotation.MutationMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
+import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequiredArgsConstructor
 public class UserResolver {
@@ -22,8 +34,8 @@ public class UserResolver {
 
     @QueryMapping
     public User me() {
-        String username = SecurityUtils.getAuthenticatedUsername();
-        return userService.getUserByUsername(username);
+        // The cached principal carries only the id; the account fields come from the row itself
+        return userService.getUserById(userService.getAuthenticatedUserId());
     }
 
     @MutationMapping
@@ -31,4 +43,30 @@ public class UserResolver {
         String username = SecurityUtils.getAuthenticatedUsername();
         return userService.updateAnonymousSetting(username, anonymous);
     }
+
+    @SchemaMapping(typeName = "User", field = "theories")
+    public CompletableFuture<Connection<Theory>> getTheories(User user, @Argument Integer first,
+                                                            @Argument String after, DataFetchingEnvironment env) {
+        // Reject malformed cursors here rather than failing the whole batch
+        CursorUtils.decodeTimestamp(after);
+        DataLoader<ConnectionKey, Connection<Theory>> theoriesLoader = env.getDataLoader(DataLoaderConfig.THEORIES_BY_AUTHOR);
+        return theoriesLoader.load(new ConnectionKey(user.getId(), PaginationUtils.resolveFirst(first), after));
+    }
+
+    @SchemaMapping(typeName = "User", field = "comments")
+    public CompletableFuture<Connection<Comment>> getComments(User user, @Argument Integer first,
+                                                             @Argument String after, DataFetchingEnvironment env) {
+        // Reject malformed cursors here rather than failing the whole batch
+        CursorUtils.decodeTimestamp(after);
+        DataLoader<ConnectionKey, Connection<Comment>> commentsLoader = env.getDataLoader(DataLoaderConfig.COMMENTS_BY_AUTHOR);
+        return commentsLoader.load(new ConnectionKey(user.getId(), PaginationUtils.resolveFirst(first), after));
+    }
+
+    // Loaded apart from the user itself, so only queries that select it pay for the unrolled ledger entries
+    @SchemaMapping(typeName = "User", field = "reputation")
+    public CompletableFuture<Integer> getReputation(User user, DataFetchingEnvironment env) {
+        DataLoader<Long, Integer> reputationLoader = env.getDataLoader(DataLoaderConfig.REPUTATION_BY_USER);
+        return reputationLoader.load(user.getId())
+                .thenApply(reputation -> reputation != null ? reputation : user.getReputation());
+    }
 }
@@ -0,0 +1,23 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.entity.Comment;
+
+import java.util.List;
+
+// Backs CommentService.searchComments; selected with forum.search.engine
+public interface CommentSearchEngine {
+
+    List<CommentSearchHit> search(String query, Long theoryId, PageInput pageInput);
+
+    default void index(Comment comment) {
+    }
+
+    default void remove(Long commentId) {
+    }
+
+    // Drops every comment of a deleted theory without loading them
+    default void removeByTheory(Long theoryId) {
+    }
+}
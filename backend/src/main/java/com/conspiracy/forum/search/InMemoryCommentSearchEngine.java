@@ -0,0 +1,94 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import com.conspiracy.forum.util.SnippetUtils;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryCommentSearchEngine implements CommentSearchEngine {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    private final CommentRepository commentRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    @PostConstruct
+    void buildIndex() {
+        long lastId = 0;
+        List<SearchDocument> batch;
+        do {
+            batch = commentRepository.findSearchDocuments(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            batch.forEach(index::put);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        log.info("Built in-memory search index with {} comments", index.size());
+    }
+
+    @Override
+    public List<CommentSearchHit> search(String query, Long theoryId, PageInput pageInput) {
+        Pageable pageable = PaginationUtils.createPageable(pageInput);
+        InvertedIndex.Hits hits = index.search(query, theoryId, SearchOrder.RECENT,
+                (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.ids().isEmpty()) {
+            return List.of();
+        }
+
+        Pattern pattern = highlightPattern(query);
+        Map<Long, Comment> commentsById = commentRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Comment::getId, Function.identity()));
+        return hits.ids().stream()
+                .map(commentsById::get)
+                .filter(Objects::nonNull)
+                .map(comment -> new CommentSearchHit(comment.getId(),
+                        SnippetUtils.highlight(comment.getContent(), pattern), comment))
+                .toList();
+    }
+
+    @Override
+    public void index(Comment comment) {
+        SearchDocument document = SearchDocument.of(comment);
+        TransactionUtils.afterCommit(() -> index.put(document));
+    }
+
+    @Override
+    public void remove(Long commentId) {
+        TransactionUtils.afterCommit(() -> index.remove(commentId));
+    }
+
+    @Override
+    public void removeByTheory(Long theoryId) {
+        TransactionUtils.afterCommit(() -> index.removeByFilterKey(theoryId));
+    }
+
+    private static Pattern highlightPattern(String query) {
+        String terms = InvertedIndex.tokenize(query).stream()
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        return Pattern.compile("(?<![\\p{L}\\p{N}])(?:" + terms + ")(?![\\p{L}\\p{N}])",
+                Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+    }
+}
@@ -0,0 +1,86 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryTheorySearchEngine implements TheorySearchEngine {
+
+    private static final int BUILD_BATCH_SIZE = 500;
+
+    private final TheoryRepository theoryRepository;
+    private final InvertedIndex index = new InvertedIndex();
+
+    @PostConstruct
+    void buildIndex() {
+        long lastId = 0;
+        List<SearchDocument> batch;
+        do {
+            batch = theoryRepository.findSearchDocuments(lastId, PageRequest.of(0, BUILD_BATCH_SIZE));
+            batch.forEach(index::put);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).id();
+            }
+        } while (batch.size() == BUILD_BATCH_SIZE);
+        log.info("Built in-memory search index with {} theories", index.size());
+    }
+
+    @Override
+    public Page<Theory> search(String keyword, TheoryFilter filter, PageInput pageInput) {
+        Pageable pageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+        InvertedIndex.Hits hits = index.search(keyword, SearchDocument.statusKey(filter.getStatus()),
+                filter.getSearchOrder(), (int) pageable.getOffset(), pageable.getPageSize());
+        if (hits.ids().isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, hits.total());
+        }
+
+        Map<Long, Theory> theoriesById = theoryRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Theory::getId, Function.identity()));
+        List<Theory> theories = hits.ids().stream()
+                .map(theoriesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(theories, pageable, hits.total());
+    }
+
+    @Override
+    public long count(String keyword, TheoryFilter filter) {
+        // An offset past every match skips ranking; the total is counted either way
+        return index.search(keyword, SearchDocument.statusKey(filter.getStatus()), filter.getSearchOrder(),
+                Integer.MAX_VALUE, 0).total();
+    }
+
+    @Override
+    public void index(Theory theory) {
+        SearchDocument document = SearchDocument.of(theory);
+        TransactionUtils.afterCommit(() -> index.put(document));
+    }
+
+    @Override
+    public void remove(Long theoryId) {
+        TransactionUtils.afterCommit(() -> index.remove(theoryId));
+    }
+}
@@ -0,0 +1,385 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.enums.SearchOrder;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Each document carries an optional filter key (a theory's status, a comment's theory id)
+// that queries can restrict on without leaving the index.
+// Documents get increasing internal numbers, so posting lists stay sorted by appending.
+// Updates and deletes tombstone the old number; compaction renumbers once tombstones dominate.
+class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 2;
+    static final int MIN_COMPACTION_TOMBSTONES = 1024;
+    private static final int INITIAL_CAPACITY = 64;
+    private static final long NO_FILTER_KEY = Long.MIN_VALUE;
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it",
+            "no", "not", "of", "on", "or", "such", "that", "the", "their", "then", "there", "these",
+            "they", "this", "to", "was", "will", "with");
+
+    record Hits(List<Long> ids, long total) {
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docNumbers = new HashMap<>();
+
+    private long[] docIds = new long[INITIAL_CAPACITY];
+    private int[] docLengths = new int[INITIAL_CAPACITY];
+    private long[] docFilterKeys = new long[INITIAL_CAPACITY];
+    private long[] docPostedAt = new long[INITIAL_CAPACITY];
+    private PostingList[][] docTerms = new PostingList[INITIAL_CAPACITY][];
+    private int docCount;
+    private long totalLength;
+
+    void put(SearchDocument document) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokenize(document.title()).forEach(term -> frequencies.merge(term, TITLE_BOOST, Integer::sum));
+        tokenize(document.content()).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(document.id());
+            compactIfTombstonesDominate();
+            int doc = docCount++;
+            ensureCapacity(docCount);
+
+            int length = 0;
+            PostingList[] terms = new PostingList[frequencies.size()];
+            int t = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                PostingList list = postings.computeIfAbsent(entry.getKey(), key -> new PostingList());
+                list.append(doc, entry.getValue());
+                terms[t++] = list;
+                length += entry.getValue();
+            }
+
+            docIds[doc] = document.id();
+            docLengths[doc] = length;
+            docFilterKeys[doc] = document.filterKey() != null ? document.filterKey() : NO_FILTER_KEY;
+            docPostedAt[doc] = toSortKey(document.postedAt());
+            docTerms[doc] = terms;
+            docNumbers.put(document.id(), doc);
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            compactIfTombstonesDominate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // One pass over the document slots; cheaper than looking every member up by id
+    void removeByFilterKey(long filterKey) {
+        lock.writeLock().lock();
+        try {
+            for (int doc = 0; doc < docCount; doc++) {
+                if (docTerms[doc] != null && docFilterKeys[doc] == filterKey) {
+                    removeLocked(docIds[doc]);
+                }
+            }
+            compactIfTombstonesDominate();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return docNumbers.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Document numbers handed out since the last compaction, tombstoned ones included
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    Hits search(String query, Long filterKey, SearchOrder order, int offset, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (terms.isEmpty()) {
+            return new Hits(List.of(), 0);
+        }
+
+        lock.readLock().lock();
+        try {
+            PostingList[] lists = new PostingList[terms.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(terms.get(i));
+                if (lists[i] == null || lists[i].documentFrequency == 0) {
+                    return new Hits(List.of(), 0);
+                }
+            }
+            // Drive the intersection from the rarest term
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+
+            int liveDocs = docNumbers.size();
+            double averageLength = (double) totalLength / liveDocs;
+            double[] idf = new double[lists.length];
+            for (int i = 0; i < lists.length; i++) {
+                int df = lists[i].documentFrequency;
+                idf[i] = Math.log(1 + (liveDocs - df + 0.5) / (df + 0.5));
+            }
+
+            int[] cursors = new int[lists.length];
+            int[] matches = new int[Math.min(lists[0].size, INITIAL_CAPACITY)];
+            double[] scores = new double[matches.length];
+            int matchCount = 0;
+
+            PostingList rarest = lists[0];
+            candidates:
+            for (int p = 0; p < rarest.size; p++) {
+                int doc = rarest.docs[p];
+                if (docTerms[doc] == null || (filterKey != null && docFilterKeys[doc] != filterKey)) {
+                    continue;
+                }
+                double score = bm25(idf[0], rarest.frequencies[p], docLengths[doc], averageLength);
+                for (int i = 1; i < lists.length; i++) {
+                    PostingList list = lists[i];
+                    int found = Arrays.binarySearch(list.docs, cursors[i], list.size, doc);
+                    if (found < 0) {
+                        cursors[i] = -found - 1;
+                        if (cursors[i] == list.size) {
+                            break candidates;
+                        }
+                        continue candidates;
+                    }
+                    cursors[i] = found + 1;
+                    score += bm25(idf[i], list.frequencies[found], docLengths[doc], averageLength);
+                }
+                if (matchCount == matches.length) {
+                    matches = Arrays.copyOf(matches, matchCount * 2);
+                    scores = Arrays.copyOf(scores, matchCount * 2);
+                }
+                matches[matchCount] = doc;
+                scores[matchCount] = score;
+                matchCount++;
+            }
+
+            return new Hits(topPage(matches, scores, matchCount, order, offset, limit), matchCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static double bm25(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private List<Long> topPage(int[] matches, double[] scores, int matchCount, SearchOrder order,
+                               int offset, int limit) {
+        if (offset >= matchCount) {
+            return List.of();
+        }
+        // Only offset + limit entries ever need ordering, so keep them in a bounded min-heap
+        int k = Math.min(matchCount, offset + limit);
+        boolean byRelevance = order != SearchOrder.RECENT;
+        int[] heap = new int[k];
+        int heapSize = 0;
+        for (int m = 0; m < matchCount; m++) {
+            if (heapSize < k) {
+                heap[heapSize] = m;
+                siftUp(heap, heapSize++, matches, scores, byRelevance);
+            } else if (compare(m, heap[0], matches, scores, byRelevance) > 0) {
+                heap[0] = m;
+                siftDown(heap, heapSize, matches, scores, byRelevance);
+            }
+        }
+
+        Long[] ranked = new Long[heapSize];
+        while (heapSize > 0) {
+            ranked[--heapSize] = docIds[matches[heap[0]]];
+            heap[0] = heap[heapSize];
+            siftDown(heap, heapSize, matches, scores, byRelevance);
+        }
+        return Arrays.asList(ranked).subList(offset, ranked.length);
+    }
+
+    private int compare(int a, int b, int[] matches, double[] scores, boolean byRelevance) {
+        if (byRelevance) {
+            int byScore = Double.compare(scores[a], scores[b]);
+            if (byScore != 0) {
+                return byScore;
+            }
+        }
+        int docA = matches[a];
+        int docB = matches[b];
+        int byPostedAt = Long.compare(docPostedAt[docA], docPostedAt[docB]);
+        return byPostedAt != 0 ? byPostedAt : Long.compare(docIds[docA], docIds[docB]);
+    }
+
+    private void siftUp(int[] heap, int index, int[] matches, double[] scores, boolean byRelevance) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (compare(heap[index], heap[parent], matches, scores, byRelevance) >= 0) {
+                return;
+            }
+            swap(heap, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, int[] matches, double[] scores, boolean byRelevance) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && compare(heap[left], heap[smallest], matches, scores, byRelevance) < 0) {
+                smallest = left;
+            }
+            if (right < size && compare(heap[right], heap[smallest], matches, scores, byRelevance) < 0) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, index, smallest);
+            index = smallest;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j) {
+        int tmp = heap[i];
+        heap[i] = heap[j];
+        heap[j] = tmp;
+    }
+
+    private void removeLocked(Long id) {
+        Integer doc = docNumbers.remove(id);
+        if (doc == null) {
+            return;
+        }
+        for (PostingList list : docTerms[doc]) {
+            list.documentFrequency--;
+        }
+        docTerms[doc] = null;
+        totalLength -= docLengths[doc];
+    }
+
+    private void compactIfTombstonesDominate() {
+        int tombstones = docCount - docNumbers.size();
+        if (tombstones >= MIN_COMPACTION_TOMBSTONES && tombstones > docNumbers.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        int live = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (docTerms[doc] == null) {
+                renumbered[doc] = -1;
+                continue;
+            }
+            renumbered[doc] = live;
+            docIds[live] = docIds[doc];
+            docLengths[live] = docLengths[doc];
+            docFilterKeys[live] = docFilterKeys[doc];
+            docPostedAt[live] = docPostedAt[doc];
+            docTerms[live] = docTerms[doc];
+            docNumbers.put(docIds[live], live);
+            live++;
+        }
+        Arrays.fill(docTerms, live, docCount, null);
+        docCount = live;
+
+        postings.values().removeIf(list -> list.documentFrequency == 0);
+        postings.values().forEach(list -> list.renumber(renumbered));
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= docIds.length) {
+            return;
+        }
+        int grown = Math.max(capacity, docIds.length * 2);
+        docIds = Arrays.copyOf(docIds, grown);
+        docLengths = Arrays.copyOf(docLengths, grown);
+        docFilterKeys = Arrays.copyOf(docFilterKeys, grown);
+        docPostedAt = Arrays.copyOf(docPostedAt, grown);
+        docTerms = Arrays.copyOf(docTerms, grown);
+    }
+
+    private static long toSortKey(LocalDateTime postedAt) {
+        if (postedAt == null) {
+            return Long.MIN_VALUE;
+        }
+        return postedAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + postedAt.getNano();
+    }
+
+    private static final class PostingList {
+
+        private int[] docs = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int documentFrequency;
+
+        private void append(int doc, int frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+            documentFrequency++;
+        }
+
+        private void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int p = 0; p < size; p++) {
+                int doc = renumbered[docs[p]];
+                if (doc >= 0) {
+                    docs[kept] = doc;
+                    frequencies[kept] = frequencies[p];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
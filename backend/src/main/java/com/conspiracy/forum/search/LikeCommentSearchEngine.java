@@ -0,0 +1,32 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import com.conspiracy.forum.util.SnippetUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "like", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LikeCommentSearchEngine implements CommentSearchEngine {
+
+    private final CommentRepository commentRepository;
+
+    @Override
+    public List<CommentSearchHit> search(String query, Long theoryId, PageInput pageInput) {
+        String keyword = query.trim();
+        Pattern pattern = Pattern.compile(Pattern.quote(keyword), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+        return commentRepository.searchByKeyword(keyword, theoryId, PaginationUtils.createPageable(pageInput))
+                .stream()
+                .map(comment -> new CommentSearchHit(comment.getId(),
+                        SnippetUtils.highlight(comment.getContent(), pattern), comment))
+                .toList();
+    }
+}
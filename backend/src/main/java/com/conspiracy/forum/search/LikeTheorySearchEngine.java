@@ -0,0 +1,36 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "like", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LikeTheorySearchEngine implements TheorySearchEngine {
+
+    private final TheoryRepository theoryRepository;
+
+    @Override
+    public Page<Theory> search(String keyword, TheoryFilter filter, PageInput pageInput) {
+        return theoryRepository.findByFilters(filter.getStatus(), keyword, PaginationUtils.createPageable(pageInput));
+    }
+
+    @Override
+    public long count(String keyword, TheoryFilter filter) {
+        return theoryRepository.countByFilters(filter.getStatus(), keyword);
+    }
+
+    @Override
+    public Slice<Theory> searchSlice(String keyword, TheoryFilter filter, PageInput pageInput) {
+        return theoryRepository.findSliceByFilters(filter.getStatus(), keyword,
+                PaginationUtils.createPageable(pageInput));
+    }
+}
@@ -0,0 +1,29 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresCommentSearchEngine implements CommentSearchEngine {
+
+    private final CommentRepository commentRepository;
+
+    @Override
+    public List<CommentSearchHit> search(String query, Long theoryId, PageInput pageInput) {
+        Pageable pageable = PaginationUtils.createPageable(pageInput);
+        return commentRepository.searchSnippets(query.trim(), theoryId, pageable.getPageSize(), pageable.getOffset())
+                .stream()
+                .map(row -> new CommentSearchHit(row.getId(), row.getSnippet()))
+                .toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "forum.search.engine", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresTheorySearchEngine implements TheorySearchEngine {
+
+    private final TheoryRepository theoryRepository;
+
+    @Override
+    public Page<Theory> search(String keyword, TheoryFilter filter, PageInput pageInput) {
+        // The native queries carry their own ORDER BY, so the page request must stay unsorted
+        Pageable pageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+        String query = keyword.trim();
+        String status = filter.getStatus() != null ? filter.getStatus().name() : null;
+        if (filter.getSearchOrder() == SearchOrder.RECENT) {
+            return theoryRepository.searchByRecency(query, status, pageable);
+        }
+        return theoryRepository.searchByRelevance(query, status, pageable);
+    }
+
+    @Override
+    public long count(String keyword, TheoryFilter filter) {
+        String status = filter.getStatus() != null ? filter.getStatus().name() : null;
+        return theoryRepository.countFullTextMatches(keyword.trim(), status);
+    }
+
+    @Override
+    public Slice<Theory> searchSlice(String keyword, TheoryFilter filter, PageInput pageInput) {
+        Pageable pageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+        String query = keyword.trim();
+        String status = filter.getStatus() != null ? filter.getStatus().name() : null;
+        if (filter.getSearchOrder() == SearchOrder.RECENT) {
+            return theoryRepository.searchSliceByRecency(query, status, pageable);
+        }
+        return theoryRepository.searchSliceByRelevance(query, status, pageable);
+    }
+}
@@ -0,0 +1,32 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.enums.TheoryStatus;
+
+import java.time.LocalDateTime;
+
+public record SearchDocument(Long id, String title, String content, Long filterKey, LocalDateTime postedAt) {
+
+    public SearchDocument(Long id, String title, String content, TheoryStatus status, LocalDateTime postedAt) {
+        this(id, title, content, statusKey(status), postedAt);
+    }
+
+    public SearchDocument(Long id, String content, Long theoryId, LocalDateTime postedAt) {
+        this(id, null, content, theoryId, postedAt);
+    }
+
+    public static SearchDocument of(Theory theory) {
+        return new SearchDocument(theory.getId(), theory.getTitle(), theory.getContent(),
+                theory.getStatus(), theory.getPostedAt());
+    }
+
+    public static SearchDocument of(Comment comment) {
+        return new SearchDocument(comment.getId(), comment.getContent(),
+                comment.getTheory().getId(), comment.getPostedAt());
+    }
+
+    static Long statusKey(TheoryStatus status) {
+        return status != null ? (long) status.ordinal() : null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.entity.Theory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+// Backs the keyword path of TheoryService.getTheories; selected with forum.search.engine
+public interface TheorySearchEngine {
+
+    Page<Theory> search(String keyword, TheoryFilter filter, PageInput pageInput);
+
+    // All matches for the keyword and status, as search would total them
+    long count(String keyword, TheoryFilter filter);
+
+    // Engines that can answer hasNext without counting every match should override this
+    default Slice<Theory> searchSlice(String keyword, TheoryFilter filter, PageInput pageInput) {
+        return search(keyword, filter, pageInput);
+    }
+
+    default void index(Theory theory) {
+    }
+
+    default void remove(Long theoryId) {
+    }
+}
@@ -1,5 +1,6 @@
 package com.conspiracy.forum.security;
 
+import com.conspiracy.forum.service.PrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,9 +9,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,7 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCache principalCache;
 
     @Override
     protected void doFilterInternal(
@@ -33,7 +33,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     ) throws ServletException, IOException {
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -41,27 +40,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        try {
-            username = jwtService.extractUsername(jwt);
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                    log.debug("Successfully authenticated user: {}", username);
-                } else {
-                    log.warn("Invalid JWT token for user: {}", username);
-                }
-            }
-        } catch (Exception e) {
-            log.warn("JWT authentication failed: {}", e.getMessage());
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            // Verification is deferred until a resolver or @PreAuthorize asks for the caller
+            Object details = new WebAuthenticationDetailsSource().buildDetails(request);
+            SecurityContextHolder.getContext().setAuthentication(
+                    new LazyJwtAuthentication(jwt, details, token -> authenticate(token, details)));
         }
         filterChain.doFilter(request, response);
     }
+
+    private Authentication authenticate(String jwt, Object details) {
+        // Signature and expiry are checked here, once; the subject names the user to load
+        String username = jwtService.verify(jwt).username();
+        if (username == null) {
+            return null;
+        }
+        UserPrincipal principal = principalCache.get(username);
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                principal,
+                null,
+                principal.authorities()
+        );
+        authToken.setDetails(details);
+        log.debug("Successfully authenticated user: {}", username);
+        return authToken;
+    }
 }
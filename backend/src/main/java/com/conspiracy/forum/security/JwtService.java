@@ -1,35 +1,64 @@
 package com.conspiracy.forum.security;
 
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.service.TokenVersionRegistry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
 
+    // The user's token version at issue time; older than the current version means revoked
+    private static final String VERSION_CLAIM = "ver";
+
+    private final TokenVersionRegistry tokenVersions;
+
     @Value("${jwt.secret}")
     private String secretKey;
 
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    // Tokens whose signature already checked out, keyed by SHA-256 so raw tokens are never retained; 0 disables
+    @Value("${jwt.verified-cache-size:10000}")
+    private int verifiedCacheSize;
+
+    // Built on first use from the injected secret
+    private volatile Verifier verifier;
+
+    public record VerifiedToken(String username, Date expiration, int version, Claims claims) {
+    }
+
+    private record Verifier(SecretKey signingKey, JwtParser parser, Map<ByteBuffer, VerifiedToken> verified) {
+    }
+
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return verify(token).username();
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(verify(token).claims());
     }
 
     public String generateToken(UserDetails userDetails) {
@@ -43,36 +72,87 @@ public class JwtService {
     private String buildToken(Map<String, Object> extraClaims, UserDetails userDetails, long expiration) {
         return Jwts.builder()
                 .claims(extraClaims)
+                .claim(VERSION_CLAIM, userDetails instanceof User user ? user.getTokenVersion() : 0)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(verifier().signingKey())
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        VerifiedToken verified = verify(token);
+        return verified.username().equals(userDetails.getUsername()) && !isExpired(verified);
+    }
+
+    // Parses and checks the signature once; later calls with the same token are served from memory until it
+    // expires. Throws the parser's JwtException for malformed, forged or expired tokens, and a JwtException
+    // for tokens revoked since they were issued.
+    public VerifiedToken verify(String token) {
+        Verifier current = verifier();
+        ByteBuffer key = current.verified() != null ? hash(token) : null;
+        if (key != null) {
+            VerifiedToken cached = current.verified().get(key);
+            if (cached != null && !isExpired(cached)) {
+                return checkNotRevoked(cached);
+            }
+            if (cached != null) {
+                // Fall through so the parser reports the expiry
+                current.verified().remove(key);
+            }
+        }
+
+        Claims claims = current.parser().parseSignedClaims(token).getPayload();
+        Integer version = claims.get(VERSION_CLAIM, Integer.class);
+        VerifiedToken verified = new VerifiedToken(claims.getSubject(), claims.getExpiration(),
+                version != null ? version : 0, claims);
+        if (key != null && verified.expiration() != null) {
+            current.verified().put(key, verified);
+        }
+        return checkNotRevoked(verified);
+    }
+
+    private VerifiedToken checkNotRevoked(VerifiedToken token) {
+        if (token.version() < tokenVersions.currentVersion(token.username())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return token;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static boolean isExpired(VerifiedToken token) {
+        return token.expiration() != null && token.expiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private Verifier verifier() {
+        Verifier current = verifier;
+        if (current == null) {
+            synchronized (this) {
+                current = verifier;
+                if (current == null) {
+                    SecretKey signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+                    current = new Verifier(signingKey, Jwts.parser().verifyWith(signingKey).build(),
+                            verifiedCacheSize > 0 ? lruMap(verifiedCacheSize) : null);
+                    verifier = current;
+                }
+            }
+        }
+        return current;
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static Map<ByteBuffer, VerifiedToken> lruMap(int capacity) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, VerifiedToken> eldest) {
+                return size() > capacity;
+            }
+        });
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 }
@@ -0,0 +1,96 @@
+package com.conspiracy.forum.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+
+// Holds the raw bearer token until something asks who the caller is: @PreAuthorize checks, SecurityUtils or
+// the principal. Public reads never do, so they skip the signature check and the user lookup entirely.
+// A token that fails to resolve leaves the request unauthenticated, exactly like a missing header.
+@Slf4j
+final class LazyJwtAuthentication implements Authentication {
+
+    private static final String ANONYMOUS_USER = "anonymousUser";
+
+    private final String token;
+    private final Object details;
+    private final Function<String, Authentication> resolver;
+
+    private volatile boolean resolved;
+    private Authentication authentication;
+
+    LazyJwtAuthentication(String token, Object details, Function<String, Authentication> resolver) {
+        this.token = token;
+        this.details = details;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        Authentication current = resolve();
+        return current != null ? current.getAuthorities() : List.of();
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public Object getDetails() {
+        return details;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        Authentication current = resolve();
+        return current != null ? current.getPrincipal() : ANONYMOUS_USER;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        Authentication current = resolve();
+        return current != null && current.isAuthenticated();
+    }
+
+    @Override
+    public void setAuthenticated(boolean isAuthenticated) {
+        if (isAuthenticated) {
+            throw new IllegalArgumentException("A bearer token is trusted only once it has been verified");
+        }
+        resolved = true;
+        authentication = null;
+    }
+
+    @Override
+    public String getName() {
+        Authentication current = resolve();
+        return current != null ? current.getName() : ANONYMOUS_USER;
+    }
+
+    // Data fetchers may run on other threads, so the first caller resolves and everyone else reuses its answer
+    private Authentication resolve() {
+        if (!resolved) {
+            synchronized (this) {
+                if (!resolved) {
+                    try {
+                        authentication = resolver.apply(token);
+                    } catch (Exception e) {
+                        log.warn("JWT authentication failed: {}", e.getMessage());
+                    }
+                    resolved = true;
+                }
+            }
+        }
+        return authentication;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " [Resolved=" + resolved + "]";
+    }
+}
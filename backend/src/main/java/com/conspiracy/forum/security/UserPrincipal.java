@@ -0,0 +1,27 @@
+package com.conspiracy.forum.security;
+
+import com.conspiracy.forum.entity.User;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+
+// What a verified bearer token resolves to; immutable, so one copy can be shared across requests,
+// and free of the password hash and anything else only the account row needs
+public record UserPrincipal(Long id, String username, List<GrantedAuthority> authorities,
+                            boolean anonymousMode, int tokenVersion) implements AuthenticatedPrincipal {
+
+    public UserPrincipal {
+        authorities = List.copyOf(authorities);
+    }
+
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), List.copyOf(user.getAuthorities()),
+                user.isAnonymousMode(), user.getTokenVersion());
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -30,6 +30,8 @@ public class AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersions;
 
     private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789!@#$%^&*";
     private static final int TEMP_PASSWORD_LENGTH = 12;
@@ -130,7 +132,9 @@ public class AuthService {
         // Update password
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         user.setMustChangePassword(false);
+        tokenVersions.revoke(user);
         userRepository.save(user);
+        principalCache.invalidate(username);
 
         return true;
     }
@@ -146,7 +150,9 @@ public class AuthService {
         // Update user with new password and set flag
         user.setPassword(passwordEncoder.encode(temporaryPassword));
         user.setMustChangePassword(true);
+        tokenVersions.revoke(user);
         userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
 
         // Send email with temporary password
         emailService.sendTemporaryPassword(request.getEmail(), temporaryPassword);
@@ -1,25 +1,39 @@
 package com.conspiracy.forum.service;
 
 import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.CommentThread;
+import com.conspiracy.forum.dto.ConnectionKey;
 import com.conspiracy.forum.dto.PageInput;
 import com.conspiracy.forum.entity.Comment;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.TheorySort;
 import com.conspiracy.forum.exception.ResourceNotFoundException;
 import com.conspiracy.forum.exception.UnauthorizedException;
 import com.conspiracy.forum.exception.ValidationException;
 import com.conspiracy.forum.repository.CommentRepository;
 import com.conspiracy.forum.repository.TheoryRepository;
 import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.search.CommentSearchEngine;
+import com.conspiracy.forum.util.CursorUtils;
+import com.conspiracy.forum.util.HotScoreUtils;
 import com.conspiracy.forum.util.PaginationUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,41 +42,104 @@ public class CommentService {
     private final CommentRepository commentRepository;
     private final TheoryRepository theoryRepository;
     private final UserRepository userRepository;
+    private final CommentSearchEngine searchEngine;
+    private final TheoryCountCache theoryCountCache;
+    private final HotTheoryLeaderboard hotTheoryLeaderboard;
+    private final TheoryCache theoryCache;
+    private final RisingTheoryTracker risingTheoryTracker;
 
     private static final int MIN_CONTENT_LENGTH = 10;
     private static final int MAX_COMMENT_DEPTH = 4;
+    private static final int MAX_COMMENTS_PER_THEORY = 100;
 
     @Transactional(readOnly = true)
     public List<Comment> getCommentsByTheory(Long theoryId) {
         if (!theoryRepository.existsById(theoryId)) {
             throw new ResourceNotFoundException("Theory not found with id: " + theoryId);
         }
-        return commentRepository.findByTheoryIdOrderByPostedAtDesc(theoryId);
+        return commentRepository.findByTheoryIdOrderByPostedAtDescIdDesc(theoryId);
     }
 
     @Transactional(readOnly = true)
-    public List<Comment> getRootCommentsByTheory(Long theoryId) {
-        if (!theoryRepository.existsById(theoryId)) {
+    public Map<Long, List<Comment>> getCommentsByTheories(Collection<Long> theoryIds) {
+        // Capped however many theories the batch holds, so the field answers the same for theory(id) and lists
+        Map<Long, List<Comment>> commentsByTheory = new HashMap<>();
+        theoryIds.forEach(theoryId -> commentsByTheory.put(theoryId, new ArrayList<>()));
+        for (Comment comment : commentRepository.findLatestByTheoryIds(theoryIds, MAX_COMMENTS_PER_THEORY)) {
+            commentsByTheory.get(comment.getTheory().getId()).add(comment);
+        }
+        return commentsByTheory;
+    }
+
+    @Transactional(readOnly = true)
+    public CommentThread getCommentThread(Long theoryId) {
+        List<Comment> comments = commentRepository.findByTheoryIdOrderByPostedAtAscIdAsc(theoryId);
+        if (comments.isEmpty() && !theoryRepository.existsById(theoryId)) {
             throw new ResourceNotFoundException("Theory not found with id: " + theoryId);
         }
-        return commentRepository.findByTheoryIdAndParentIsNullOrderByPostedAtDesc(theoryId);
+        return CommentThread.of(comments);
     }
 
     @Transactional(readOnly = true)
-    public List<Comment> getReplies(Long parentId) {
-        if (!commentRepository.existsById(parentId)) {
-            throw new ResourceNotFoundException("Parent comment not found with id: " + parentId);
+    public Map<Long, List<Comment>> getRepliesByParentIds(Collection<Long> parentIds) {
+        Map<Long, List<Comment>> repliesByParent = new HashMap<>();
+        parentIds.forEach(parentId -> repliesByParent.put(parentId, new ArrayList<>()));
+        for (Comment reply : commentRepository.findByParentIdInOrderByPostedAtAscIdAsc(parentIds)) {
+            repliesByParent.get(reply.getParent().getId()).add(reply);
         }
-        return commentRepository.findByParentIdOrderByPostedAtAsc(parentId);
+        return repliesByParent;
     }
 
     @Transactional(readOnly = true)
-    public Page<Comment> getCommentsByTheoryPaginated(Long theoryId, PageInput pageInput) {
-        if (!theoryRepository.existsById(theoryId)) {
+    public Slice<Comment> getCommentsByTheoryPaginated(Long theoryId, PageInput pageInput) {
+        Pageable pageable = PaginationUtils.createPageable(pageInput);
+        Slice<Comment> comments = commentRepository.findByTheoryId(theoryId, pageable);
+        if (!comments.hasContent() && !theoryRepository.existsById(theoryId)) {
             throw new ResourceNotFoundException("Theory not found with id: " + theoryId);
         }
-        Pageable pageable = PaginationUtils.createPageable(pageInput);
-        return commentRepository.findByTheoryId(theoryId, pageable);
+        return comments;
+    }
+
+    // Returns up to first + 1 comments so callers can tell whether another page exists
+    @Transactional(readOnly = true)
+    public List<Comment> getCommentsByTheoryAfter(Long theoryId, int first, String after) {
+        CursorUtils.TimestampCursor cursor = CursorUtils.decodeTimestamp(after);
+        List<Comment> comments = commentRepository.findByTheoryIdBefore(
+                theoryId, cursor.timestamp(), cursor.id(), Limit.of(first + 1));
+        if (comments.isEmpty() && !theoryRepository.existsById(theoryId)) {
+            throw new ResourceNotFoundException("Theory not found with id: " + theoryId);
+        }
+        return comments;
+    }
+
+    // Returns up to first + 1 comments per key so callers can tell whether another page exists
+    @Transactional(readOnly = true)
+    public Map<ConnectionKey, List<Comment>> getCommentsByAuthors(Collection<ConnectionKey> keys) {
+        Map<ConnectionKey, List<Comment>> commentsByKey = new HashMap<>();
+        keys.stream().collect(Collectors.groupingBy(ConnectionKey::window)).forEach((window, windowKeys) -> {
+            CursorUtils.TimestampCursor cursor = CursorUtils.decodeTimestamp(window.after());
+            List<Long> authorIds = windowKeys.stream().map(ConnectionKey::ownerId).toList();
+            Map<Long, List<Comment>> commentsByAuthor = commentRepository
+                    .findLatestByAuthorIds(authorIds, cursor.timestamp(), cursor.id(), window.first() + 1)
+                    .stream()
+                    .collect(Collectors.groupingBy(comment -> comment.getAuthor().getId()));
+            windowKeys.forEach(key -> commentsByKey.put(key, commentsByAuthor.getOrDefault(key.ownerId(), List.of())));
+        });
+        return commentsByKey;
+    }
+
+    @Transactional(readOnly = true)
+    public List<CommentSearchHit> searchComments(String query, Long theoryId, PageInput pageInput) {
+        if (query == null || query.trim().isEmpty()) {
+            throw new ValidationException("Search query must not be empty");
+        }
+        return searchEngine.search(query, theoryId, pageInput);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Comment> getCommentsByIds(Collection<Long> ids) {
+        return commentRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Comment::getId, Function.identity()));
     }
 
     @Transactional(readOnly = true)
@@ -103,9 +180,18 @@ public class CommentService {
                 .build();
 
         Comment savedComment = commentRepository.save(comment);
-        
-        theory.incrementCommentCount();
-        theoryRepository.save(theory);
+        searchEngine.index(savedComment);
+
+        // Counted last, in one statement, so the theory row stays locked only until the commit right after;
+        // the re-read carries the new count and hot score for the rankings
+        addComments(theory.getId(), 1);
+        Theory counted = theoryRepository.findById(theory.getId()).orElse(theory);
+
+        theoryCountCache.invalidateHot();
+        hotTheoryLeaderboard.update(counted);
+        risingTheoryTracker.record(counted);
+        theoryCache.invalidate(theory.getId());
+        theoryCache.invalidatePages(TheorySort.HOT);
 
         return savedComment;
     }
@@ -125,7 +211,9 @@ public class CommentService {
         comment.setContent(content);
         comment.setUpdatedAt(LocalDateTime.now());
 
-        return commentRepository.save(comment);
+        Comment savedComment = commentRepository.save(comment);
+        searchEngine.index(savedComment);
+        return savedComment;
     }
 
     @Transactional
@@ -136,14 +224,24 @@ public class CommentService {
             throw new UnauthorizedException("You can only delete your own comments");
         }
 
-        Theory theory = comment.getTheory();
-        theory.decrementCommentCount();
-        theoryRepository.save(theory);
-
+        // Replies go with the comment, so they leave the count too
+        Long theoryId = comment.getTheory().getId();
+        int removed = removeFromSearchIndex(comment);
         commentRepository.delete(comment);
+        addComments(theoryId, -removed);
+
+        theoryRepository.findById(theoryId).ifPresent(hotTheoryLeaderboard::update);
+        theoryCountCache.invalidateHot();
+        theoryCache.invalidate(theoryId);
+        theoryCache.invalidatePages(TheorySort.HOT);
         return true;
     }
 
+    private int addComments(Long theoryId, int delta) {
+        return theoryRepository.addComments(theoryId, delta, HotScoreUtils.COMMENT_WEIGHT,
+                HotScoreUtils.SECONDS_PER_ORDER);
+    }
+
     private void validateCommentInput(CommentInput input) {
         if (input.getContent() == null || input.getContent().length() < MIN_CONTENT_LENGTH) {
             throw new ValidationException("Comment content must be at least " + MIN_CONTENT_LENGTH + " characters");
@@ -153,6 +251,16 @@ public class CommentService {
         }
     }
 
+    // Replies go with their parent through the cascade; returns how many comments that is
+    private int removeFromSearchIndex(Comment comment) {
+        searchEngine.remove(comment.getId());
+        int removed = 1;
+        for (Comment reply : comment.getReplies()) {
+            removed += removeFromSearchIndex(reply);
+        }
+        return removed;
+    }
+
     private int getCommentDepth(Comment comment) {
         int depth = 0;
         Comment current = comment;
@@ -0,0 +1,251 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Holds detached snapshots of the highest ranked theories in hotTheories order, so the first pages
+// never touch the database. Every theory left off the board ranks at or below the floor, which is
+// what makes a prefix of the board an exact prefix of the SQL ordering.
+// Writes arrive after commit as a fresh read of the row, taken in turn per theory, so commits that finish
+// out of order cannot leave an older snapshot on the board.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotTheoryLeaderboard {
+
+    private static final int REREAD_STRIPES = 16;
+
+    private final TheoryRepository theoryRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    // 0 disables the board and every page falls back to SQL
+    @Value("${forum.hot.leaderboard-size:0}")
+    private int capacity;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ConcurrentSkipListMap<Rank, Theory> board = new ConcurrentSkipListMap<>();
+    private final Map<Long, Rank> ranks = new HashMap<>();
+    private final Lock[] rereadLocks = new Lock[REREAD_STRIPES];
+    private TransactionTemplate rereads;
+
+    // Null while the board holds every theory
+    private Rank floor;
+    private boolean loaded;
+    // Non-null while a reload reads the database; changes in that window are replayed on top of it
+    private Map<Long, Optional<Theory>> changedDuringReload;
+
+    record Rank(double hotScore, long id) implements Comparable<Rank> {
+
+        static Rank of(Theory theory) {
+            return new Rank(theory.getHotScore(), theory.getId());
+        }
+
+        @Override
+        public int compareTo(Rank other) {
+            int byScore = Double.compare(other.hotScore, hotScore);
+            return byScore != 0 ? byScore : Long.compare(other.id, id);
+        }
+    }
+
+    @PostConstruct
+    void load() {
+        for (int i = 0; i < rereadLocks.length; i++) {
+            rereadLocks[i] = new ReentrantLock();
+        }
+        // Its own transaction: the one that just committed may still hold entities from before its bulk updates
+        rereads = new TransactionTemplate(transactionManager);
+        rereads.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        rereads.setReadOnly(true);
+        if (capacity > 0) {
+            reload();
+        }
+    }
+
+    public Optional<Slice<Theory>> page(Pageable pageable) {
+        if (capacity <= 0) {
+            return Optional.empty();
+        }
+        long offset = pageable.getOffset();
+        int size = pageable.getPageSize();
+
+        lock.readLock().lock();
+        try {
+            // A full page plus one more entry proves hasNext; otherwise only a complete board can answer
+            boolean complete = floor == null;
+            if (!loaded || (!complete && offset + size >= board.size())) {
+                return Optional.empty();
+            }
+            List<Theory> content = new ArrayList<>(size);
+            long skipped = 0;
+            for (Theory theory : board.values()) {
+                if (skipped++ < offset) {
+                    continue;
+                }
+                if (content.size() == size) {
+                    break;
+                }
+                content.add(theory);
+            }
+            return Optional.of(new SliceImpl<>(content, pageable, offset + size < board.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void update(Theory theory) {
+        if (capacity <= 0 || !mayHold(Rank.of(theory))) {
+            return;
+        }
+        Long theoryId = theory.getId();
+        TransactionUtils.afterCommit(() -> reread(theoryId));
+    }
+
+    public void remove(Long theoryId) {
+        if (capacity <= 0) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            Lock rereadLock = rereadLockOf(theoryId);
+            rereadLock.lock();
+            try {
+                apply(theoryId, Optional.empty());
+            } finally {
+                rereadLock.unlock();
+            }
+        });
+    }
+
+    public void reload() {
+        if (capacity <= 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            changedDuringReload = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Theory> hottest;
+        try {
+            List<Long> ids = theoryRepository.findHottestIds(Limit.of(capacity));
+            hottest = ids.isEmpty() ? List.of() : theoryRepository.findWithEvidenceUrlsByIdIn(ids);
+        } catch (RuntimeException e) {
+            // Serve from SQL until the next reload rather than from a board that may have missed writes
+            lock.writeLock().lock();
+            try {
+                board.clear();
+                ranks.clear();
+                loaded = false;
+                changedDuringReload = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            board.clear();
+            ranks.clear();
+            hottest.forEach(theory -> put(theory.detachedCopy()));
+            floor = hottest.size() < capacity ? null : board.lastKey();
+            loaded = true;
+            changedDuringReload.forEach(this::applyLocked);
+            changedDuringReload = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Loaded {} theories into the hot leaderboard", hottest.size());
+    }
+
+    private boolean mayHold(Rank rank) {
+        lock.readLock().lock();
+        try {
+            return !loaded || floor == null || rank.compareTo(floor) < 0 || ranks.containsKey(rank.id());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Each read starts after the previous one for the theory was applied, so it is never older than the board's
+    private void reread(Long theoryId) {
+        Lock rereadLock = rereadLockOf(theoryId);
+        rereadLock.lock();
+        try {
+            Optional<Theory> snapshot = rereads.execute(status ->
+                    theoryRepository.findWithEvidenceUrlsById(theoryId).map(Theory::detachedCopy));
+            apply(theoryId, snapshot);
+        } finally {
+            rereadLock.unlock();
+        }
+    }
+
+    private Lock rereadLockOf(Long theoryId) {
+        return rereadLocks[Math.floorMod(theoryId.hashCode(), rereadLocks.length)];
+    }
+
+    private void apply(Long theoryId, Optional<Theory> snapshot) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringReload != null) {
+                changedDuringReload.put(theoryId, snapshot);
+            }
+            applyLocked(theoryId, snapshot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyLocked(Long theoryId, Optional<Theory> snapshot) {
+        Rank previous = ranks.remove(theoryId);
+        if (previous != null) {
+            board.remove(previous);
+        }
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        Rank rank = Rank.of(snapshot.get());
+        // A theory that falls to the floor leaves the board; one outside it may simply be unknown
+        if (floor != null && rank.compareTo(floor) >= 0) {
+            return;
+        }
+        put(snapshot.get());
+        while (board.size() > capacity) {
+            Rank evicted = board.lastKey();
+            board.remove(evicted);
+            ranks.remove(evicted.id());
+            floor = evicted;
+        }
+    }
+
+    private void put(Theory snapshot) {
+        Rank rank = Rank.of(snapshot);
+        board.put(rank, snapshot);
+        ranks.put(snapshot.getId(), rank);
+    }
+}
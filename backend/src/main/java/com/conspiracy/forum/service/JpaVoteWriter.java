@@ -0,0 +1,91 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.Vote;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+// Read then write, for databases without ON CONFLICT. A withdrawn vote's row is deleted, and concurrent
+// first votes by the same user can still collide on the unique constraint.
+@Component
+@ConditionalOnProperty(name = "forum.votes.writer", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaVoteWriter implements VoteWriter {
+
+    private final VoteRepository voteRepository;
+    private final UserRepository userRepository;
+    private final TheoryRepository theoryRepository;
+    private final CommentRepository commentRepository;
+
+    @Override
+    public int voteTheory(Long userId, Long theoryId, int value) {
+        return voteTheories(userId, Map.of(theoryId, List.of(value))).get(theoryId);
+    }
+
+    @Override
+    public int voteComment(Long userId, Long commentId, int value) {
+        return voteComments(userId, Map.of(commentId, List.of(value))).get(commentId);
+    }
+
+    @Override
+    public Map<Long, Integer> voteTheories(Long userId, Map<Long, List<Integer>> valuesByTheoryId) {
+        List<Vote> existingVotes = voteRepository.findByUserIdAndTheoryIdIn(userId, valuesByTheoryId.keySet());
+        return write(existingVotes, vote -> vote.getTheory().getId(), valuesByTheoryId,
+                theoryId -> Vote.builder()
+                        .user(userRepository.getReferenceById(userId))
+                        .theory(theoryRepository.getReferenceById(theoryId)));
+    }
+
+    @Override
+    public Map<Long, Integer> voteComments(Long userId, Map<Long, List<Integer>> valuesByCommentId) {
+        List<Vote> existingVotes = voteRepository.findByUserIdAndCommentIdIn(userId, valuesByCommentId.keySet());
+        return write(existingVotes, vote -> vote.getComment().getId(), valuesByCommentId,
+                commentId -> Vote.builder()
+                        .user(userRepository.getReferenceById(userId))
+                        .comment(commentRepository.getReferenceById(commentId)));
+    }
+
+    private Map<Long, Integer> write(List<Vote> existingVotes, Function<Vote, Long> targetOf,
+                                     Map<Long, List<Integer>> valuesByTargetId,
+                                     LongFunction<Vote.VoteBuilder> newVote) {
+        Map<Long, Vote> votesByTargetId = new HashMap<>();
+        for (Vote vote : existingVotes) {
+            votesByTargetId.put(targetOf.apply(vote), vote);
+        }
+
+        Map<Long, Integer> previousValues = new HashMap<>();
+        List<Vote> saved = new ArrayList<>();
+        List<Vote> withdrawn = new ArrayList<>();
+        valuesByTargetId.forEach((targetId, values) -> {
+            Vote vote = votesByTargetId.get(targetId);
+            int previousValue = vote != null ? vote.getValue() : 0;
+            int newValue = VoteWriter.cast(previousValue, values);
+            previousValues.put(targetId, previousValue);
+            if (vote == null) {
+                if (newValue != 0) {
+                    saved.add(newVote.apply(targetId).value(newValue).build());
+                }
+            } else if (newValue == 0) {
+                withdrawn.add(vote);
+            } else if (newValue != previousValue) {
+                vote.setPreviousValue(previousValue);
+                vote.setValue(newValue);
+                saved.add(vote);
+            }
+        });
+        voteRepository.deleteAll(withdrawn);
+        voteRepository.saveAll(saved);
+        return previousValues;
+    }
+}
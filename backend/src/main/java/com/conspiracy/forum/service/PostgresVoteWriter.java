@@ -0,0 +1,106 @@
+package com.conspiracy.forum.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// One upsert per vote. ON CONFLICT cannot delete, so a withdrawn vote keeps its row with value 0, and the
+// replaced value is kept alongside because RETURNING only sees the new row. Concurrent first votes by the same
+// user queue on the unique constraint and apply in turn instead of failing.
+@Component
+@ConditionalOnProperty(name = "forum.votes.writer", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresVoteWriter implements VoteWriter {
+
+    private static final String UPSERT_THEORY_VOTE = """
+            INSERT INTO votes (user_id, theory_id, vote_value, previous_value, created_at)
+            VALUES (?, ?, ?, 0, CURRENT_TIMESTAMP)
+            ON CONFLICT ON CONSTRAINT uq_vote_user_theory DO UPDATE
+            SET previous_value = votes.vote_value,
+                vote_value = CASE WHEN votes.vote_value = EXCLUDED.vote_value THEN 0 ELSE EXCLUDED.vote_value END
+            RETURNING previous_value
+            """;
+
+    private static final String UPSERT_COMMENT_VOTE = """
+            INSERT INTO votes (user_id, comment_id, vote_value, previous_value, created_at)
+            VALUES (?, ?, ?, 0, CURRENT_TIMESTAMP)
+            ON CONFLICT ON CONSTRAINT uq_vote_user_comment DO UPDATE
+            SET previous_value = votes.vote_value,
+                vote_value = CASE WHEN votes.vote_value = EXCLUDED.vote_value THEN 0 ELSE EXCLUDED.vote_value END
+            RETURNING previous_value
+            """;
+
+    private static final String UPSERT_THEORY_VOTES = upsertAll("theory_id", "uq_vote_user_theory");
+    private static final String UPSERT_COMMENT_VOTES = upsertAll("comment_id", "uq_vote_user_comment");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int voteTheory(Long userId, Long theoryId, int value) {
+        return jdbcTemplate.queryForObject(UPSERT_THEORY_VOTE, Integer.class, userId, theoryId, value);
+    }
+
+    @Override
+    public int voteComment(Long userId, Long commentId, int value) {
+        return jdbcTemplate.queryForObject(UPSERT_COMMENT_VOTE, Integer.class, userId, commentId, value);
+    }
+
+    @Override
+    public Map<Long, Integer> voteTheories(Long userId, Map<Long, List<Integer>> valuesByTheoryId) {
+        return upsert(UPSERT_THEORY_VOTES, userId, valuesByTheoryId);
+    }
+
+    @Override
+    public Map<Long, Integer> voteComments(Long userId, Map<Long, List<Integer>> valuesByCommentId) {
+        return upsert(UPSERT_COMMENT_VOTES, userId, valuesByCommentId);
+    }
+
+    // A target's values collapse to the vote they leave from each possible starting point, so the whole
+    // batch is one statement over arrays whatever its size
+    private Map<Long, Integer> upsert(String sql, Long userId, Map<Long, List<Integer>> valuesByTargetId) {
+        Map<Long, Integer> previousValues = new HashMap<>();
+        if (valuesByTargetId.isEmpty()) {
+            return previousValues;
+        }
+        int size = valuesByTargetId.size();
+        Long[] targetIds = new Long[size];
+        Integer[] fromNone = new Integer[size];
+        Integer[] fromUp = new Integer[size];
+        Integer[] fromDown = new Integer[size];
+        int i = 0;
+        for (Map.Entry<Long, List<Integer>> entry : valuesByTargetId.entrySet()) {
+            targetIds[i] = entry.getKey();
+            fromNone[i] = VoteWriter.cast(0, entry.getValue());
+            fromUp[i] = VoteWriter.cast(1, entry.getValue());
+            fromDown[i] = VoteWriter.cast(-1, entry.getValue());
+            i++;
+        }
+        jdbcTemplate.query(sql, rs -> {
+            previousValues.put(rs.getLong(1), rs.getInt(2));
+        }, targetIds, fromNone, fromUp, fromDown, userId);
+        return previousValues;
+    }
+
+    private static String upsertAll(String targetColumn, String constraint) {
+        return """
+                WITH casts (target_id, from_none, from_up, from_down) AS (
+                    SELECT * FROM unnest(CAST(? AS BIGINT[]), CAST(? AS INTEGER[]), CAST(? AS INTEGER[]),
+                                         CAST(? AS INTEGER[]))
+                )
+                INSERT INTO votes (user_id, %1$s, vote_value, previous_value, created_at)
+                SELECT ?, target_id, from_none, 0, CURRENT_TIMESTAMP FROM casts
+                ON CONFLICT ON CONSTRAINT %2$s DO UPDATE
+                SET previous_value = votes.vote_value,
+                    vote_value = (SELECT CASE votes.vote_value WHEN 1 THEN c.from_up
+                                                               WHEN -1 THEN c.from_down
+                                                               ELSE c.from_none END
+                                  FROM casts c WHERE c.target_id = EXCLUDED.%1$s)
+                RETURNING %1$s, previous_value
+                """.formatted(targetColumn, constraint);
+    }
+}
@@ -0,0 +1,55 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.security.UserPrincipal;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Principals resolved from bearer tokens, kept briefly so a burst of requests from one client costs one lookup.
+// Only account changes that affect authentication invalidate; everything else is bounded by the TTL.
+@Component
+@RequiredArgsConstructor
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+
+    // Zero disables the cache and every request loads its user
+    @Value("${forum.security.principal-ttl:PT0S}")
+    private Duration ttl;
+
+    @Value("${forum.security.principal-cache-size:10000}")
+    private int capacity;
+
+    private SingleFlightCache<String, UserPrincipal> principals;
+
+    @PostConstruct
+    void init() {
+        if (!ttl.isZero() && capacity > 0) {
+            principals = new SingleFlightCache<>(capacity, ttl);
+        }
+    }
+
+    public UserPrincipal get(String username) {
+        UserPrincipal principal = principals != null ? principals.get(username, this::load) : load(username);
+        if (principal == null) {
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+        return principal;
+    }
+
+    public void invalidate(String username) {
+        if (principals != null) {
+            TransactionUtils.afterCommit(() -> principals.invalidate(username));
+        }
+    }
+
+    private UserPrincipal load(String username) {
+        return userRepository.findByUsername(username).map(UserPrincipal::of).orElse(null);
+    }
+}
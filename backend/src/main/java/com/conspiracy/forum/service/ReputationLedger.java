@@ -0,0 +1,112 @@
+package com.conspiracy.forum.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Append-only ledger of reputation changes. Votes insert a row here rather than updating the author's
+// user row, so votes on a prolific author's posts never queue behind each other, logins or settings changes.
+// The rollup periodically folds the rows into users.reputation; until then UserService.getReputationsByIds
+// adds them on read.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReputationLedger {
+
+    // The author is found inside the statement, so recording never loads the post or its author
+    private static final String APPEND_FOR_THEORY_AUTHOR = "INSERT INTO reputation_deltas (user_id, delta, created_at) " +
+            "SELECT author_id, ?, ? FROM theories WHERE id = ?";
+    private static final String APPEND_FOR_COMMENT_AUTHOR = "INSERT INTO reputation_deltas (user_id, delta, created_at) " +
+            "SELECT author_id, ?, ? FROM comments WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${forum.reputation.rollup-batch-size:10000}")
+    private int rollupBatchSize;
+
+    public void recordForTheoryAuthor(Long theoryId, int delta) {
+        recordForTheoryAuthors(Map.of(theoryId, delta));
+    }
+
+    public void recordForCommentAuthor(Long commentId, int delta) {
+        recordForCommentAuthors(Map.of(commentId, delta));
+    }
+
+    public void recordForTheoryAuthors(Map<Long, Integer> deltaByTheoryId) {
+        append(APPEND_FOR_THEORY_AUTHOR, deltaByTheoryId);
+    }
+
+    public void recordForCommentAuthors(Map<Long, Integer> deltaByCommentId) {
+        append(APPEND_FOR_COMMENT_AUTHOR, deltaByCommentId);
+    }
+
+    // Rolls up everything recorded so far, one batch per transaction; returns how many rows were folded in
+    @Scheduled(fixedDelayString = "${forum.reputation.rollup-interval:PT30S}")
+    public int rollUp() {
+        int total = 0;
+        int rolled;
+        do {
+            rolled = transactionTemplate.execute(status -> rollUpBatch());
+            total += rolled;
+        } while (rolled == rollupBatchSize);
+        if (total > 0) {
+            log.debug("Rolled up {} reputation deltas", total);
+        }
+        return total;
+    }
+
+    private void append(String sql, Map<Long, Integer> deltaByPostId) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(deltaByPostId.size());
+        deltaByPostId.forEach((postId, delta) -> {
+            if (delta != 0) {
+                rows.add(new Object[]{delta, now, postId});
+            }
+        });
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    // Rows are locked as they are read and deleted by id, so a rollup running on another node skips them
+    // and a row committed mid-rollup waits for the next round instead of being deleted uncounted.
+    // The users update and the delete commit together, so reads never count a delta twice or not at all.
+    private int rollUpBatch() {
+        List<long[]> rows = jdbcTemplate.query(
+                "SELECT id, user_id, delta FROM reputation_deltas ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getLong("user_id"), rs.getInt("delta")},
+                rollupBatchSize);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        // Users are updated in id order so concurrent rollups lock them in the same order
+        Map<Long, Integer> deltaByUser = new TreeMap<>();
+        List<Object[]> ids = new ArrayList<>(rows.size());
+        for (long[] row : rows) {
+            deltaByUser.merge(row[1], (int) row[2], Integer::sum);
+            ids.add(new Object[]{row[0]});
+        }
+        List<Object[]> updates = new ArrayList<>(deltaByUser.size());
+        deltaByUser.forEach((userId, delta) -> {
+            if (delta != 0) {
+                updates.add(new Object[]{delta, userId});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE users SET reputation = reputation + ? WHERE id = ?", updates);
+        jdbcTemplate.batchUpdate("DELETE FROM reputation_deltas WHERE id = ?", ids);
+        return rows.size();
+    }
+}
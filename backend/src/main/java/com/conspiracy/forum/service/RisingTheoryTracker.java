@@ -0,0 +1,281 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Counts votes and comments per theory in a ring of five minute buckets covering the last hour.
+// Everything lives in preallocated primitive arrays indexed by slot: an open addressing table maps
+// theory ids to slots, and each slot owns BUCKETS counters stamped with the bucket they belong to,
+// so stale buckets are reset lazily instead of by a sweeper. Recording allocates nothing.
+@Component
+public class RisingTheoryTracker {
+
+    static final int BUCKETS = 12;
+    static final long BUCKET_MILLIS = 5 * 60 * 1000;
+    private static final double AGE_OFFSET_HOURS = 2;
+    private static final long EMPTY = 0;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final int capacity;
+
+    // Open addressing table from theory id to slot, sized to stay at most half full
+    private final long[] tableKeys;
+    private final int[] tableSlots;
+
+    private final long[] slotTheoryIds;
+    private final long[] slotPostedAtMillis;
+    private final int[] bucketCounts;
+    private final long[] bucketStamps;
+    private final int[] freeSlots;
+    private int freeCount;
+
+    public RisingTheoryTracker(@Value("${forum.rising.capacity:50000}") int capacity) {
+        this.capacity = capacity;
+        int tableSize = Integer.highestOneBit(Math.max(capacity, 8) * 2 - 1) << 1;
+        tableKeys = new long[tableSize];
+        tableSlots = new int[tableSize];
+        slotTheoryIds = new long[capacity];
+        slotPostedAtMillis = new long[capacity];
+        bucketCounts = new int[capacity * BUCKETS];
+        bucketStamps = new long[capacity * BUCKETS];
+        freeSlots = new int[capacity];
+        for (int slot = 0; slot < capacity; slot++) {
+            freeSlots[slot] = capacity - 1 - slot;
+        }
+        freeCount = capacity;
+    }
+
+    public void record(Theory theory) {
+        long theoryId = theory.getId();
+        long postedAtMillis = toMillis(theory.getPostedAt());
+        TransactionUtils.afterCommit(() -> record(theoryId, postedAtMillis, System.currentTimeMillis()));
+    }
+
+    public void remove(Long theoryId) {
+        TransactionUtils.afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                int index = find(theoryId);
+                if (index >= 0) {
+                    release(index);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Ids ranked by activity over the last hour divided by age, most rising first
+    public long[] rising(int offset, int limit) {
+        return rising(offset, limit, System.currentTimeMillis());
+    }
+
+    void record(long theoryId, long postedAtMillis, long nowMillis) {
+        long bucket = nowMillis / BUCKET_MILLIS;
+        lock.writeLock().lock();
+        try {
+            int index = find(theoryId);
+            int slot;
+            if (index >= 0) {
+                slot = tableSlots[index];
+            } else {
+                if (freeCount == 0 && reclaimIdle(bucket) == 0) {
+                    return;
+                }
+                slot = freeSlots[--freeCount];
+                slotTheoryIds[slot] = theoryId;
+                slotPostedAtMillis[slot] = postedAtMillis;
+                Arrays.fill(bucketStamps, slot * BUCKETS, (slot + 1) * BUCKETS, Long.MIN_VALUE);
+                insert(theoryId, slot);
+            }
+            int counter = slot * BUCKETS + (int) (bucket % BUCKETS);
+            if (bucketStamps[counter] != bucket) {
+                bucketStamps[counter] = bucket;
+                bucketCounts[counter] = 0;
+            }
+            bucketCounts[counter]++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    long[] rising(int offset, int limit, long nowMillis) {
+        long bucket = nowMillis / BUCKET_MILLIS;
+        int k = offset + limit;
+        if (limit <= 0 || k <= 0) {
+            return new long[0];
+        }
+        // Bounded min-heap of the best offset + limit slots
+        int[] heapSlots = new int[k];
+        double[] heapScores = new double[k];
+        int heapSize = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int index = 0; index < tableKeys.length; index++) {
+                if (tableKeys[index] == EMPTY) {
+                    continue;
+                }
+                int slot = tableSlots[index];
+                int activity = windowActivity(slot, bucket);
+                if (activity == 0) {
+                    continue;
+                }
+                double ageHours = Math.max(0, nowMillis - slotPostedAtMillis[slot]) / 3_600_000.0;
+                double score = activity / (ageHours + AGE_OFFSET_HOURS);
+                if (heapSize < k) {
+                    heapSlots[heapSize] = slot;
+                    heapScores[heapSize] = score;
+                    siftUp(heapSlots, heapScores, heapSize++);
+                } else if (ranksAbove(score, slot, heapScores[0], heapSlots[0])) {
+                    heapSlots[0] = slot;
+                    heapScores[0] = score;
+                    siftDown(heapSlots, heapScores, heapSize);
+                }
+            }
+
+            long[] ranked = new long[heapSize];
+            while (heapSize > 0) {
+                ranked[--heapSize] = slotTheoryIds[heapSlots[0]];
+                heapSlots[0] = heapSlots[heapSize];
+                heapScores[0] = heapScores[heapSize];
+                siftDown(heapSlots, heapScores, heapSize);
+            }
+            return offset >= ranked.length ? new long[0] : Arrays.copyOfRange(ranked, offset, ranked.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int trackedCount() {
+        lock.readLock().lock();
+        try {
+            return capacity - freeCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int windowActivity(int slot, long bucket) {
+        int activity = 0;
+        for (int counter = slot * BUCKETS, end = counter + BUCKETS; counter < end; counter++) {
+            if (bucketStamps[counter] > bucket - BUCKETS) {
+                activity += bucketCounts[counter];
+            }
+        }
+        return activity;
+    }
+
+    // Frees every slot without activity in the window; called only when the tracker is full
+    private int reclaimIdle(long bucket) {
+        int reclaimed = 0;
+        for (int index = 0; index < tableKeys.length; index++) {
+            if (tableKeys[index] != EMPTY && windowActivity(tableSlots[index], bucket) == 0) {
+                release(index);
+                reclaimed++;
+                // Backward shifting may have moved an unvisited entry into this index
+                index--;
+            }
+        }
+        return reclaimed;
+    }
+
+    private int find(long theoryId) {
+        int mask = tableKeys.length - 1;
+        for (int index = mix(theoryId) & mask; tableKeys[index] != EMPTY; index = (index + 1) & mask) {
+            if (tableKeys[index] == theoryId) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    private void insert(long theoryId, int slot) {
+        int mask = tableKeys.length - 1;
+        int index = mix(theoryId) & mask;
+        while (tableKeys[index] != EMPTY) {
+            index = (index + 1) & mask;
+        }
+        tableKeys[index] = theoryId;
+        tableSlots[index] = slot;
+    }
+
+    // Deletes by shifting later entries of the probe run back, so lookups never need tombstones
+    private void release(int index) {
+        freeSlots[freeCount++] = tableSlots[index];
+        int mask = tableKeys.length - 1;
+        int hole = index;
+        for (int next = (hole + 1) & mask; tableKeys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = mix(tableKeys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                tableKeys[hole] = tableKeys[next];
+                tableSlots[hole] = tableSlots[next];
+                hole = next;
+            }
+        }
+        tableKeys[hole] = EMPTY;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // Ties go to the newer theory, matching the id tie-break used by the other rankings
+    private boolean ranksAbove(double score, int slot, double otherScore, int otherSlot) {
+        int byScore = Double.compare(score, otherScore);
+        return byScore != 0 ? byScore > 0 : slotTheoryIds[slot] > slotTheoryIds[otherSlot];
+    }
+
+    private void siftUp(int[] slots, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!ranksAbove(scores[parent], slots[parent], scores[index], slots[index])) {
+                return;
+            }
+            swap(slots, scores, index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int[] slots, double[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int lowest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && ranksAbove(scores[lowest], slots[lowest], scores[left], slots[left])) {
+                lowest = left;
+            }
+            if (right < size && ranksAbove(scores[lowest], slots[lowest], scores[right], slots[right])) {
+                lowest = right;
+            }
+            if (lowest == index) {
+                return;
+            }
+            swap(slots, scores, index, lowest);
+            index = lowest;
+        }
+    }
+
+    private static void swap(int[] slots, double[] scores, int i, int j) {
+        int slot = slots[i];
+        slots[i] = slots[j];
+        slots[j] = slot;
+        double score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    private static long toMillis(LocalDateTime postedAt) {
+        return postedAt == null ? System.currentTimeMillis() : postedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,196 @@
+package com.conspiracy.forum.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+// Size and TTL bounded LRU where concurrent misses on a key share one load. A load only lands in the
+// cache if its in-flight future is still registered, and invalidation unregisters it under the same
+// lock, so a value read before a write can never be cached after that write's invalidation.
+final class SingleFlightCache<K, V> {
+
+    private final int capacity;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final Lock lock = new ReentrantLock();
+    private final LinkedHashMap<K, Entry<V>> entries;
+    private final Map<K, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+
+    SingleFlightCache(int capacity, Duration ttl) {
+        this(capacity, ttl, System::nanoTime);
+    }
+
+    SingleFlightCache(int capacity, Duration ttl, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > SingleFlightCache.this.capacity;
+            }
+        };
+    }
+
+    // A null from the loader means "absent" and is handed to concurrent callers but never cached
+    V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> running = loads.putIfAbsent(key, own);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            // Another load may have finished between the miss and the registration
+            V value = getIfPresent(key);
+            if (value == null) {
+                value = loader.apply(key);
+                put(key, value, own);
+            }
+            own.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            loads.remove(key, own);
+        }
+    }
+
+    // Misses that nobody else is loading are fetched with a single batch call; absent keys are left out
+    Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> batchLoader) {
+        Map<K, V> found = new HashMap<>();
+        Map<K, CompletableFuture<V>> own = new HashMap<>();
+        Map<K, CompletableFuture<V>> running = new HashMap<>();
+        for (K key : keys) {
+            V cached = getIfPresent(key);
+            if (cached != null) {
+                found.put(key, cached);
+                continue;
+            }
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> existing = loads.putIfAbsent(key, future);
+            if (existing != null) {
+                running.put(key, existing);
+            } else {
+                own.put(key, future);
+            }
+        }
+
+        if (!own.isEmpty()) {
+            try {
+                Map<K, V> loaded = batchLoader.apply(new ArrayList<>(own.keySet()));
+                own.forEach((key, future) -> {
+                    V value = loaded.get(key);
+                    put(key, value, future);
+                    future.complete(value);
+                    if (value != null) {
+                        found.put(key, value);
+                    }
+                });
+            } catch (RuntimeException e) {
+                own.values().forEach(future -> future.completeExceptionally(e));
+                throw e;
+            } finally {
+                own.forEach(loads::remove);
+            }
+        }
+
+        running.forEach((key, future) -> {
+            V value = await(future);
+            if (value != null) {
+                found.put(key, value);
+            }
+        });
+        return found;
+    }
+
+    void invalidate(K key) {
+        lock.lock();
+        try {
+            entries.remove(key);
+            loads.remove(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void invalidateIf(Predicate<K> predicate) {
+        lock.lock();
+        try {
+            entries.keySet().removeIf(predicate);
+            loads.keySet().removeIf(predicate);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private V getIfPresent(K key) {
+        lock.lock();
+        try {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void put(K key, V value, CompletableFuture<V> load) {
+        if (value == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (loads.get(key) == load) {
+                entries.put(key, new Entry<>(value, nanoClock.getAsLong() + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.enums.TheorySort;
+import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+// Detached theory snapshots by id, plus the leading pages of each theories listing as id lists that are
+// hydrated from those snapshots. Writers invalidate after commit, only the entries their change can move.
+@Component
+@RequiredArgsConstructor
+public class TheoryCache {
+
+    private final TheoryRepository theoryRepository;
+
+    // 0 disables the cache and every read goes to the database
+    @Value("${forum.cache.theory-size:0}")
+    private int capacity;
+
+    // Bounds staleness from writes that bypass the services, such as the vote counter flush
+    @Value("${forum.cache.theory-ttl:PT30S}")
+    private Duration ttl;
+
+    @Value("${forum.cache.theory-pages:3}")
+    private int cachedPages;
+
+    private SingleFlightCache<Long, Theory> theories;
+    private SingleFlightCache<PageKey, PageIds> pages;
+
+    private record PageKey(TheoryStatus status, TheorySort sort, int page, int size) {
+    }
+
+    private record PageIds(List<Long> ids, boolean hasNext) {
+    }
+
+    @PostConstruct
+    void init() {
+        if (capacity > 0) {
+            theories = new SingleFlightCache<>(capacity, ttl);
+            pages = new SingleFlightCache<>(capacity, ttl);
+        }
+    }
+
+    public Optional<Theory> get(Long id) {
+        if (capacity <= 0) {
+            return theoryRepository.findById(id);
+        }
+        return Optional.ofNullable(theories.get(id, key -> theoryRepository.findWithEvidenceUrlsById(key)
+                .map(Theory::detachedCopy)
+                .orElse(null)));
+    }
+
+    public Slice<Theory> page(TheoryStatus status, TheorySort sort, Pageable pageable,
+                              Supplier<Slice<Theory>> loader) {
+        if (capacity <= 0 || pageable.getPageNumber() >= cachedPages) {
+            return loader.get();
+        }
+        PageKey key = new PageKey(status, sort, pageable.getPageNumber(), pageable.getPageSize());
+        // The caller that runs the query serves its own rows instead of hydrating them again
+        List<Theory> loaded = new ArrayList<>();
+        PageIds ids = pages.get(key, ignored -> {
+            Slice<Theory> slice = loader.get();
+            loaded.addAll(slice.getContent());
+            return new PageIds(slice.getContent().stream().map(Theory::getId).toList(), slice.hasNext());
+        });
+        return new SliceImpl<>(loaded.isEmpty() ? hydrate(ids.ids()) : loaded, pageable, ids.hasNext());
+    }
+
+    public void invalidate(Long theoryId) {
+        if (capacity > 0) {
+            TransactionUtils.afterCommit(() -> theories.invalidate(theoryId));
+        }
+    }
+
+    public void invalidatePages() {
+        if (capacity > 0) {
+            TransactionUtils.afterCommit(() -> pages.invalidateIf(key -> true));
+        }
+    }
+
+    // For changes that reorder listings in some sorts only, such as a vote leaving NEW untouched
+    public void invalidatePages(TheorySort first, TheorySort... rest) {
+        if (capacity > 0) {
+            Set<TheorySort> sorts = EnumSet.of(first, rest);
+            TransactionUtils.afterCommit(() -> pages.invalidateIf(key -> sorts.contains(key.sort())));
+        }
+    }
+
+    private List<Theory> hydrate(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Theory> byId = theories.getAll(ids, missing -> theoryRepository.findWithEvidenceUrlsByIdIn(missing)
+                .stream()
+                .collect(Collectors.toMap(Theory::getId, Theory::detachedCopy)));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,107 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.TransactionUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+// Invalidation swaps in a fresh map, so a count computed before it can only land in the discarded one
+@Component
+@RequiredArgsConstructor
+public class TheoryCountCache {
+
+    private static final String ALL_STATUSES = "ALL";
+    // Keywords are unbounded, so past this many live entries new searches are counted without caching
+    private static final int MAX_SEARCH_COUNTS = 10_000;
+
+    private final TheoryRepository theoryRepository;
+
+    // 0 disables estimates; otherwise unfiltered totals at or above this size come from pg_class
+    @Value("${forum.count.estimate-threshold:0}")
+    private long estimateThreshold;
+
+    // Bounds staleness from writes that bypass the services, such as bulk imports
+    @Value("${forum.count.cache-ttl:PT1M}")
+    private Duration cacheTtl;
+
+    private volatile Map<String, CachedCount> statusCounts = new ConcurrentHashMap<>();
+    private volatile Map<Integer, CachedCount> hotCounts = new ConcurrentHashMap<>();
+    private volatile Map<SearchKey, CachedCount> searchCounts = new ConcurrentHashMap<>();
+
+    public record TotalCount(long value, boolean estimate) {
+    }
+
+    private record CachedCount(long value, long expiresAt) {
+    }
+
+    private record SearchKey(String keyword, TheoryStatus status) {
+    }
+
+    public TotalCount countByStatus(TheoryStatus status) {
+        if (status == null && estimateThreshold > 0) {
+            Long estimate = theoryRepository.estimateRowCount();
+            if (estimate != null && estimate >= estimateThreshold) {
+                return new TotalCount(estimate, true);
+            }
+        }
+
+        String key = status != null ? status.name() : ALL_STATUSES;
+        return new TotalCount(cached(statusCounts, key, () -> status != null
+                ? theoryRepository.countByStatus(status)
+                : theoryRepository.count()), false);
+    }
+
+    public TotalCount countHot(int minComments) {
+        return new TotalCount(cached(hotCounts, minComments,
+                () -> theoryRepository.countByCommentCountGreaterThanEqual(minComments)), false);
+    }
+
+    public TotalCount countSearch(String keyword, TheoryStatus status, LongSupplier counter) {
+        Map<SearchKey, CachedCount> counts = searchCounts;
+        if (counts.size() >= MAX_SEARCH_COUNTS) {
+            long now = System.nanoTime();
+            counts.values().removeIf(count -> now - count.expiresAt() >= 0);
+            if (counts.size() >= MAX_SEARCH_COUNTS) {
+                return new TotalCount(counter.getAsLong(), false);
+            }
+        }
+        SearchKey key = new SearchKey(keyword.trim().toLowerCase(Locale.ROOT), status);
+        return new TotalCount(cached(counts, key, counter), false);
+    }
+
+    public void invalidate() {
+        TransactionUtils.afterCommit(() -> {
+            statusCounts = new ConcurrentHashMap<>();
+            hotCounts = new ConcurrentHashMap<>();
+            searchCounts = new ConcurrentHashMap<>();
+        });
+    }
+
+    // Edited titles and content change which theories a keyword matches, but not how many there are per status
+    public void invalidateSearch() {
+        TransactionUtils.afterCommit(() -> searchCounts = new ConcurrentHashMap<>());
+    }
+
+    public void invalidateHot() {
+        TransactionUtils.afterCommit(() -> hotCounts = new ConcurrentHashMap<>());
+    }
+
+    private <K> long cached(Map<K, CachedCount> counts, K key, LongSupplier counter) {
+        long now = System.nanoTime();
+        CachedCount cached = counts.get(key);
+        if (cached != null && now - cached.expiresAt() < 0) {
+            return cached.value();
+        }
+        long value = counter.getAsLong();
+        counts.put(key, new CachedCount(value, now + cacheTtl.toNanos()));
+        return value;
+    }
+}
@@ -1,26 +1,42 @@
 package com.conspiracy.forum.service;
 
+import com.conspiracy.forum.dto.ConnectionKey;
+import com.conspiracy.forum.dto.CountedPage;
 import com.conspiracy.forum.dto.PageInput;
 import com.conspiracy.forum.dto.TheoryFilter;
 import com.conspiracy.forum.dto.TheoryInput;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.TheorySort;
 import com.conspiracy.forum.enums.TheoryStatus;
 import com.conspiracy.forum.exception.ResourceNotFoundException;
 import com.conspiracy.forum.exception.UnauthorizedException;
 import com.conspiracy.forum.exception.ValidationException;
 import com.conspiracy.forum.repository.TheoryRepository;
 import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.search.CommentSearchEngine;
+import com.conspiracy.forum.search.TheorySearchEngine;
+import com.conspiracy.forum.util.CursorUtils;
 import com.conspiracy.forum.util.PaginationUtils;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 @Service
 @RequiredArgsConstructor
@@ -28,40 +44,73 @@ public class TheoryService {
 
     private final TheoryRepository theoryRepository;
     private final UserRepository userRepository;
+    private final TheorySearchEngine searchEngine;
+    private final CommentSearchEngine commentSearchEngine;
+    private final TheoryCountCache theoryCountCache;
+    private final HotTheoryLeaderboard hotTheoryLeaderboard;
+    private final RisingTheoryTracker risingTheoryTracker;
+    private final TheoryCache theoryCache;
 
     private static final int MIN_TITLE_LENGTH = 5;
     private static final int MIN_CONTENT_LENGTH = 20;
     private static final int HOT_THEORY_MIN_COMMENTS = 5;
 
     @Transactional(readOnly = true)
-    public Page<Theory> getTheories(TheoryFilter filter, PageInput pageInput) {
-        Pageable pageable = PaginationUtils.createPageable(pageInput);
-
+    public CountedPage<Theory> getTheories(TheoryFilter filter, PageInput pageInput) {
         if (filter == null) {
-            return theoryRepository.findAll(pageable);
+            filter = new TheoryFilter();
         }
 
         if (Boolean.TRUE.equals(filter.getHotOnly())) {
             int minComments = filter.getMinCommentCount() != null ? 
                     filter.getMinCommentCount() : HOT_THEORY_MIN_COMMENTS;
-            return theoryRepository.findHotTheories(minComments, pageable);
+            Pageable hotPageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+            return withTotal(theoryRepository.findHotTheoriesSlice(minComments, hotPageable), hotPageable,
+                    () -> theoryCountCache.countHot(minComments));
         }
 
         String keyword = filter.getKeyword();
-        if (keyword != null && keyword.trim().isEmpty()) {
-            keyword = null;
+        TheoryStatus status = filter.getStatus();
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            TheoryFilter searchFilter = filter;
+            Pageable searchPageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+            return withTotal(searchEngine.searchSlice(keyword, filter, pageInput), searchPageable,
+                    () -> theoryCountCache.countSearch(keyword, status,
+                            () -> searchEngine.count(keyword, searchFilter)));
+        }
+
+        Pageable pageable = PaginationUtils.createPageable(pageInput, sortOf(filter.getSort()));
+        return withTotal(findTheories(status, pageable), pageable, () -> theoryCountCache.countByStatus(status));
+    }
+
+    // For callers that never show totals: one extra row answers hasNext, so no COUNT query runs
+    @Transactional(readOnly = true)
+    public Slice<Theory> getTheorySlice(TheoryFilter filter, PageInput pageInput) {
+        if (filter == null) {
+            filter = new TheoryFilter();
         }
 
-        if (filter.getStatus() == null && keyword == null) {
-            return theoryRepository.findAll(pageable);
+        if (Boolean.TRUE.equals(filter.getHotOnly())) {
+            int minComments = filter.getMinCommentCount() != null ?
+                    filter.getMinCommentCount() : HOT_THEORY_MIN_COMMENTS;
+            return theoryRepository.findHotTheoriesSlice(minComments,
+                    PaginationUtils.createPageable(pageInput, Sort.unsorted()));
         }
 
-        return theoryRepository.findByFilters(filter.getStatus(), keyword, pageable);
+        String keyword = filter.getKeyword();
+        if (keyword != null && !keyword.trim().isEmpty()) {
+            return searchEngine.searchSlice(keyword, filter, pageInput);
+        }
+
+        TheoryStatus status = filter.getStatus();
+        TheorySort sort = filter.getSort() != null ? filter.getSort() : TheorySort.NEW;
+        Pageable pageable = PaginationUtils.createPageable(pageInput, sortOf(sort));
+        return theoryCache.page(status, sort, pageable, () -> findTheories(status, pageable));
     }
 
     @Transactional(readOnly = true)
     public Theory getTheoryById(Long id) {
-        return theoryRepository.findById(id)
+        return theoryCache.get(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Theory not found with id: " + id));
     }
 
@@ -73,10 +122,85 @@ public class TheoryService {
         return theoryRepository.findByAuthorIdOrderByPostedAtDesc(userId);
     }
 
+    // Returns up to first + 1 theories per key so callers can tell whether another page exists
     @Transactional(readOnly = true)
-    public Page<Theory> getHotTheories(PageInput pageInput) {
+    public Map<ConnectionKey, List<Theory>> getTheoriesByAuthors(Collection<ConnectionKey> keys) {
+        Map<ConnectionKey, List<Theory>> theoriesByKey = new HashMap<>();
+        keys.stream().collect(Collectors.groupingBy(ConnectionKey::window)).forEach((window, windowKeys) -> {
+            CursorUtils.TimestampCursor cursor = CursorUtils.decodeTimestamp(window.after());
+            List<Long> authorIds = windowKeys.stream().map(ConnectionKey::ownerId).toList();
+            Map<Long, List<Theory>> theoriesByAuthor = theoryRepository
+                    .findLatestByAuthorIds(authorIds, cursor.timestamp(), cursor.id(), window.first() + 1)
+                    .stream()
+                    .collect(Collectors.groupingBy(theory -> theory.getAuthor().getId()));
+            windowKeys.forEach(key -> theoriesByKey.put(key, theoriesByAuthor.getOrDefault(key.ownerId(), List.of())));
+        });
+        return theoriesByKey;
+    }
+
+    @Transactional(readOnly = true)
+    public Slice<Theory> getHotTheories(PageInput pageInput) {
+        // The query orders by the indexed hot score itself; a page sort would defeat the index
+        Pageable pageable = PaginationUtils.createPageable(pageInput, Sort.unsorted());
+        return hotTheoryLeaderboard.page(pageable)
+                .orElseGet(() -> theoryRepository.findAllOrderByHotScoreDesc(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Theory> getRisingTheories(PageInput pageInput) {
         Pageable pageable = PaginationUtils.createPageable(pageInput);
-        return theoryRepository.findAllOrderByCommentCountDesc(pageable);
+        List<Long> ids = LongStream.of(risingTheoryTracker.rising((int) pageable.getOffset(), pageable.getPageSize()))
+                .boxed()
+                .toList();
+        Map<Long, Theory> theoriesById = theoryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Theory::getId, Function.identity()));
+        // Theories deleted behind the tracker's back simply drop out
+        return ids.stream().map(theoriesById::get).filter(Objects::nonNull).toList();
+    }
+
+    // Returns up to first + 1 theories so callers can tell whether another page exists
+    @Transactional(readOnly = true)
+    public List<Theory> getTheoriesAfter(TheoryFilter filter, int first, String after) {
+        if (filter == null) {
+            filter = new TheoryFilter();
+        }
+        if (filter.getKeyword() != null && !filter.getKeyword().trim().isEmpty()) {
+            throw new ValidationException("Keyword search does not support cursor pagination");
+        }
+
+        if (Boolean.TRUE.equals(filter.getHotOnly())) {
+            int minComments = filter.getMinCommentCount() != null ?
+                    filter.getMinCommentCount() : HOT_THEORY_MIN_COMMENTS;
+            return getHottestAfter(minComments, first, after);
+        }
+
+        TheoryStatus status = filter.getStatus();
+        Limit limit = Limit.of(first + 1);
+        return switch (filter.getSort() != null ? filter.getSort() : TheorySort.NEW) {
+            case NEW -> {
+                CursorUtils.TimestampCursor cursor = CursorUtils.decodeTimestamp(after);
+                yield theoryRepository.findLatestBefore(status, cursor.timestamp(), cursor.id(), limit);
+            }
+            case TOP -> {
+                // The cast saturates the open-ended first cursor; later ones always carry a whole score
+                CursorUtils.ScoreCursor cursor = CursorUtils.decodeScore(after);
+                yield theoryRepository.findTopBefore(status, (int) cursor.score(), cursor.id(), limit);
+            }
+            case HOT -> {
+                CursorUtils.ScoreCursor cursor = CursorUtils.decodeScore(after);
+                yield theoryRepository.findHotBefore(status, cursor.score(), cursor.id(), limit);
+            }
+            case CONTROVERSIAL -> {
+                CursorUtils.ScoreCursor cursor = CursorUtils.decodeScore(after);
+                yield theoryRepository.findMostControversialBefore(status, cursor.score(), cursor.id(), limit);
+            }
+        };
+    }
+
+    // Returns up to first + 1 theories so callers can tell whether another page exists
+    @Transactional(readOnly = true)
+    public List<Theory> getHotTheoriesAfter(int first, String after) {
+        return getHottestAfter(0, first, after);
     }
 
     @Transactional
@@ -95,12 +219,17 @@ public class TheoryService {
                 .author(author)
                 .build();
 
-        return theoryRepository.save(theory);
+        Theory saved = theoryRepository.save(theory);
+        searchEngine.index(saved);
+        theoryCountCache.invalidate();
+        hotTheoryLeaderboard.update(saved);
+        theoryCache.invalidatePages();
+        return saved;
     }
 
     @Transactional
     public Theory updateTheory(Long id, TheoryInput input, String username) {
-        Theory theory = getTheoryById(id);
+        Theory theory = findTheory(id);
         
         if (!theory.getAuthor().getUsername().equals(username)) {
             throw new UnauthorizedException("You can only update your own theories");
@@ -111,6 +240,7 @@ public class TheoryService {
                 throw new ValidationException("Theory title must be at least " + MIN_TITLE_LENGTH + " characters");
             }
             theory.setTitle(input.getTitle());
+            theoryCountCache.invalidateSearch();
         }
 
         if (input.getContent() != null) {
@@ -118,10 +248,13 @@ public class TheoryService {
                 throw new ValidationException("Theory content must be at least " + MIN_CONTENT_LENGTH + " characters");
             }
             theory.setContent(input.getContent());
+            theoryCountCache.invalidateSearch();
         }
 
-        if (input.getStatus() != null) {
+        if (input.getStatus() != null && input.getStatus() != theory.getStatus()) {
             theory.setStatus(input.getStatus());
+            theoryCountCache.invalidate();
+            theoryCache.invalidatePages();
         }
 
         if (input.getEvidenceUrls() != null) {
@@ -129,22 +262,72 @@ public class TheoryService {
         }
 
         theory.setUpdatedAt(LocalDateTime.now());
-        
-        return theoryRepository.save(theory);
+
+        Theory saved = theoryRepository.save(theory);
+        searchEngine.index(saved);
+        hotTheoryLeaderboard.update(saved);
+        theoryCache.invalidate(id);
+        return saved;
     }
 
     @Transactional
     public boolean deleteTheory(Long id, String username) {
-        Theory theory = getTheoryById(id);
+        Theory theory = findTheory(id);
         
         if (!theory.getAuthor().getUsername().equals(username)) {
             throw new UnauthorizedException("You can only delete your own theories");
         }
 
         theoryRepository.delete(theory);
+        searchEngine.remove(id);
+        theoryCountCache.invalidate();
+        hotTheoryLeaderboard.remove(id);
+        risingTheoryTracker.remove(id);
+        theoryCache.invalidate(id);
+        theoryCache.invalidatePages();
+        commentSearchEngine.removeByTheory(id);
         return true;
     }
 
+    // Writers need the managed entity, never a cached snapshot
+    private Theory findTheory(Long id) {
+        return theoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Theory not found with id: " + id));
+    }
+
+    private Slice<Theory> findTheories(TheoryStatus status, Pageable pageable) {
+        return status != null
+                ? theoryRepository.findAllByStatus(status, pageable)
+                : theoryRepository.findAllBy(pageable);
+    }
+
+    // Every order has a matching (column DESC, id DESC) index, so pages are read off it without sorting
+    private static Sort sortOf(TheorySort sort) {
+        String column = switch (sort != null ? sort : TheorySort.NEW) {
+            case NEW -> "postedAt";
+            case TOP -> "score";
+            case HOT -> "hotScore";
+            case CONTROVERSIAL -> "controversy";
+        };
+        return Sort.by(Sort.Direction.DESC, column, "id");
+    }
+
+    private CountedPage<Theory> withTotal(Slice<Theory> slice, Pageable pageable,
+                                          Supplier<TheoryCountCache.TotalCount> total) {
+        List<Theory> content = slice.getContent();
+        // A page that is not full already tells how many rows there are
+        if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+            return new CountedPage<>(content, pageable, pageable.getOffset() + content.size(), false);
+        }
+        TheoryCountCache.TotalCount count = total.get();
+        return new CountedPage<>(content, pageable, count.value(), count.estimate());
+    }
+
+    private List<Theory> getHottestAfter(int minComments, int first, String after) {
+        CursorUtils.ScoreCursor cursor = CursorUtils.decodeScore(after);
+        return theoryRepository.findHottestBefore(minComments, cursor.score(), cursor.id(), Limit.of(first + 1));
+    }
+
     private void validateTheoryInput(TheoryInput input) {
         if (input.getTitle() == null || input.getTitle().length() < MIN_TITLE_LENGTH) {
             throw new ValidationException("Theory title must be at least " + MIN_TITLE_LENGTH + " characters");
@@ -0,0 +1,74 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every user's current token version, so checking a token for revocation is a map lookup instead of a query.
+// Only users who have revoked at least once have an entry. Revocations on this node land after commit;
+// those made by other nodes are picked up by polling the indexed revocation timestamp.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVersionRegistry {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final UserRepository userRepository;
+
+    // Each poll looks back this far past the previous one, covering commit lag and clock skew between nodes
+    @Value("${forum.security.revocation-poll-overlap:PT1M}")
+    private Duration pollOverlap;
+
+    private final Map<String, Integer> versions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime polledAt;
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    public int currentVersion(String username) {
+        return versions.getOrDefault(username, 0);
+    }
+
+    // Invalidates every token issued to the user so far; the caller's transaction persists the change
+    public void revoke(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokensRevokedAt(LocalDateTime.now());
+        String username = user.getUsername();
+        int version = user.getTokenVersion();
+        TransactionUtils.afterCommit(() -> record(username, version));
+    }
+
+    @Scheduled(fixedDelayString = "${forum.security.revocation-poll:PT10S}",
+               initialDelayString = "${forum.security.revocation-poll:PT10S}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = polledAt != null ? polledAt.minus(pollOverlap) : EPOCH;
+        int seen = 0;
+        for (UserRepository.TokenVersion tokenVersion : userRepository.findByTokensRevokedAtAfter(since)) {
+            record(tokenVersion.getUsername(), tokenVersion.getTokenVersion());
+            seen++;
+        }
+        polledAt = now;
+        log.debug("Refreshed {} token versions revoked since {}", seen, since);
+    }
+
+    // Versions only grow, so a late or repeated update can never resurrect revoked tokens
+    private void record(String username, int version) {
+        versions.merge(username, version, Math::max);
+    }
+}
@@ -3,17 +3,25 @@ package com.conspiracy.forum.service;
 import com.conspiracy.forum.entity.User;
 import com.conspiracy.forum.exception.ResourceNotFoundException;
 import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.security.UserPrincipal;
+import com.conspiracy.forum.util.SecurityUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Transactional(readOnly = true)
     public User getUserById(Long id) {
@@ -27,15 +35,46 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found: " + username));
     }
 
+    @Transactional(readOnly = true)
+    public Map<Long, User> getUsersByIds(Collection<Long> ids) {
+        return userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, Integer> getReputationsByIds(Collection<Long> ids) {
+        return userRepository.findReputationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(UserRepository.Reputation::getId, UserRepository.Reputation::getReputation));
+    }
+
+    @Transactional(readOnly = true)
+    public int getReputation(Long id) {
+        Integer reputation = getReputationsByIds(List.of(id)).get(id);
+        if (reputation == null) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        return reputation;
+    }
+
     @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    // The caller's id as resolved by JwtAuthenticationFilter, without another lookup
+    public Long getAuthenticatedUserId() {
+        Authentication authentication = SecurityUtils.getAuthentication();
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.id();
+        }
+        return getUserByUsername(authentication.getName()).getId();
+    }
+
     @Transactional
     public User updateAnonymousSetting(String username, boolean anonymousMode) {
         User user = getUserByUsername(username);
         user.setAnonymousMode(anonymousMode);
+        principalCache.invalidate(username);
         return userRepository.save(user);
     }
 }
@@ -0,0 +1,309 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.enums.TheorySort;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.util.HotScoreUtils;
+import com.conspiracy.forum.util.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+// Write-behind for vote counters. With it enabled a vote only writes its own row; the score, upvote and
+// downvote changes collect here per theory or comment and reach the database in one batch every flush
+// interval, so a viral theory's row is written by the flusher alone instead of locked by every voter.
+// Each id's changes are striped over cells picked by the voting thread, so voters on the same id rarely share
+// a lock, and the flusher moves every cell's amounts out under that cell's lock. A counter that stayed idle
+// for a whole round is retired while it is drained; voters that still hold it see that and take a fresh one.
+// Reads add what is still pending, so voters see their vote at once.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VoteCounterBuffer {
+
+    private static final int STRIPES = Runtime.getRuntime().availableProcessors();
+    private static final long FLUSHED_RETENTION_MILLIS = Duration.ofSeconds(10).toMillis();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TheoryRepository theoryRepository;
+    private final HotTheoryLeaderboard hotTheoryLeaderboard;
+    private final TheoryCache theoryCache;
+
+    @Value("${forum.votes.write-behind:false}")
+    private boolean enabled;
+
+    private final Map<Long, Counter> theories = new ConcurrentHashMap<>();
+    private final Map<Long, Counter> comments = new ConcurrentHashMap<>();
+
+    // Recent flushes' amounts, newest first, each under the generation its rows were stamped with. A read
+    // adds those newer than the counter_generation of the row it holds, so counts neither dip while a flush
+    // commits nor count twice once the row has them. Generations are epoch millis, which bounds how long
+    // a request may hold a row before it misses a flush.
+    private volatile List<Flushed> flushed = List.of();
+
+    // Odd while amounts move between the cells and the flushed snapshot; reads that overlap a move retry
+    private volatile long moves;
+
+    private long lastGeneration;
+
+    private final Lock flushLock = new ReentrantLock();
+
+    public record VoteDelta(int score, int upvotes, int downvotes) {
+
+        public static final VoteDelta NONE = new VoteDelta(0, 0, 0);
+
+        static VoteDelta of(int previousValue, int newValue) {
+            return new VoteDelta(newValue - previousValue,
+                    (newValue > 0 ? 1 : 0) - (previousValue > 0 ? 1 : 0),
+                    (newValue < 0 ? 1 : 0) - (previousValue < 0 ? 1 : 0));
+        }
+
+        VoteDelta plus(VoteDelta other) {
+            return new VoteDelta(score + other.score, upvotes + other.upvotes, downvotes + other.downvotes);
+        }
+    }
+
+    private record Flushed(long generation, Map<Long, VoteDelta> theories, Map<Long, VoteDelta> comments) {
+    }
+
+    private static final class Cell {
+
+        // Written under the cell's monitor, read without it
+        private volatile int score;
+        private volatile int upvotes;
+        private volatile int downvotes;
+        private boolean retired;
+    }
+
+    private static final class Counter {
+
+        private final Cell[] cells = new Cell[STRIPES];
+
+        // Only touched by the flusher
+        private boolean idle;
+
+        Counter() {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = new Cell();
+            }
+        }
+
+        boolean add(VoteDelta delta) {
+            Cell cell = cells[Math.floorMod(Thread.currentThread().getId(), cells.length)];
+            synchronized (cell) {
+                if (cell.retired) {
+                    return false;
+                }
+                cell.score += delta.score();
+                cell.upvotes += delta.upvotes();
+                cell.downvotes += delta.downvotes();
+            }
+            return true;
+        }
+
+        VoteDelta drain(boolean retire) {
+            int score = 0;
+            int upvotes = 0;
+            int downvotes = 0;
+            for (Cell cell : cells) {
+                synchronized (cell) {
+                    score += cell.score;
+                    upvotes += cell.upvotes;
+                    downvotes += cell.downvotes;
+                    cell.score = 0;
+                    cell.upvotes = 0;
+                    cell.downvotes = 0;
+                    cell.retired = retire;
+                }
+            }
+            return new VoteDelta(score, upvotes, downvotes);
+        }
+
+        VoteDelta sum() {
+            int score = 0;
+            int upvotes = 0;
+            int downvotes = 0;
+            for (Cell cell : cells) {
+                score += cell.score;
+                upvotes += cell.upvotes;
+                downvotes += cell.downvotes;
+            }
+            return new VoteDelta(score, upvotes, downvotes);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Buffered once the vote row commits, so a rolled back vote never counts
+    public void addTheoryVote(Long theoryId, int previousValue, int newValue) {
+        VoteDelta delta = VoteDelta.of(previousValue, newValue);
+        TransactionUtils.afterCommit(() -> add(theories, theoryId, delta));
+    }
+
+    public void addCommentVote(Long commentId, int previousValue, int newValue) {
+        VoteDelta delta = VoteDelta.of(previousValue, newValue);
+        TransactionUtils.afterCommit(() -> add(comments, commentId, delta));
+    }
+
+    public VoteDelta pendingFor(Theory theory) {
+        return pending(theories, theory.getId(), theory.getCounterGeneration(), Flushed::theories);
+    }
+
+    public VoteDelta pendingFor(Comment comment) {
+        return pending(comments, comment.getId(), comment.getCounterGeneration(), Flushed::comments);
+    }
+
+    @Scheduled(fixedDelayString = "${forum.votes.flush-interval:PT0.25S}")
+    public void flush() {
+        if (theories.isEmpty() && comments.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<Flushed> previous = flushed;
+            moves++;
+            Map<Long, VoteDelta> theoryDeltas = drain(theories);
+            Map<Long, VoteDelta> commentDeltas = drain(comments);
+            if (theoryDeltas.isEmpty() && commentDeltas.isEmpty()) {
+                moves++;
+                return;
+            }
+            lastGeneration = Math.max(lastGeneration + 1, System.currentTimeMillis());
+            Flushed current = new Flushed(lastGeneration, theoryDeltas, commentDeltas);
+            flushed = retained(current, previous);
+            moves++;
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(current));
+            } catch (RuntimeException e) {
+                // Back into the buffer for the next round; nothing was written
+                log.warn("Flushing vote counters failed, retrying on the next round", e);
+                moves++;
+                current.theories().forEach((id, delta) -> add(theories, id, delta));
+                current.comments().forEach((id, delta) -> add(comments, id, delta));
+                flushed = previous;
+                moves++;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void write(Flushed deltas) {
+        if (!deltas.theories().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE theories SET score = score + ?, upvotes = upvotes + ?, " +
+                    "downvotes = downvotes + ?, counter_generation = ? WHERE id = ?",
+                    arguments(deltas.theories(), deltas.generation()));
+            theoryRepository.refreshVoteRankings(deltas.theories().keySet(), HotScoreUtils.COMMENT_WEIGHT,
+                    HotScoreUtils.SECONDS_PER_ORDER);
+            for (Theory theory : theoryRepository.findAllById(deltas.theories().keySet())) {
+                hotTheoryLeaderboard.update(theory);
+                theoryCache.invalidate(theory.getId());
+            }
+            theoryCache.invalidatePages(TheorySort.TOP, TheorySort.HOT, TheorySort.CONTROVERSIAL);
+        }
+        if (!deltas.comments().isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE comments SET score = score + ?, upvotes = upvotes + ?, " +
+                    "downvotes = downvotes + ?, counter_generation = ? WHERE id = ?",
+                    arguments(deltas.comments(), deltas.generation()));
+        }
+        log.debug("Flushed vote counters of {} theories and {} comments",
+                deltas.theories().size(), deltas.comments().size());
+    }
+
+    private static void add(Map<Long, Counter> counters, Long id, VoteDelta delta) {
+        while (true) {
+            Counter counter = counters.get(id);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(id, ignored -> new Counter());
+            }
+            if (counter.add(delta)) {
+                return;
+            }
+            counters.remove(id, counter);
+        }
+    }
+
+    // Runs while moves is odd; a counter that had nothing to move last round is retired as it is drained
+    private static Map<Long, VoteDelta> drain(Map<Long, Counter> counters) {
+        Map<Long, VoteDelta> drained = new HashMap<>();
+        counters.forEach((id, counter) -> {
+            boolean retire = counter.idle;
+            VoteDelta delta = counter.drain(retire);
+            if (retire) {
+                counters.remove(id, counter);
+            }
+            counter.idle = delta.equals(VoteDelta.NONE);
+            if (!counter.idle) {
+                drained.put(id, delta);
+            }
+        });
+        return drained;
+    }
+
+    private static List<Flushed> retained(Flushed current, List<Flushed> previous) {
+        List<Flushed> retained = new ArrayList<>(previous.size() + 1);
+        retained.add(current);
+        for (Flushed recent : previous) {
+            if (recent.generation() >= current.generation() - FLUSHED_RETENTION_MILLIS) {
+                retained.add(recent);
+            }
+        }
+        return List.copyOf(retained);
+    }
+
+    private static List<Object[]> arguments(Map<Long, VoteDelta> deltas, long generation) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) ->
+                rows.add(new Object[]{delta.score(), delta.upvotes(), delta.downvotes(), generation, id}));
+        return rows;
+    }
+
+    private VoteDelta pending(Map<Long, Counter> counters, Long id, long rowGeneration,
+                              Function<Flushed, Map<Long, VoteDelta>> flushedOf) {
+        while (true) {
+            long before = moves;
+            if ((before & 1) == 0) {
+                Counter counter = counters.get(id);
+                VoteDelta buffered = counter != null ? counter.sum() : VoteDelta.NONE;
+                VoteDelta pending = buffered;
+                for (Flushed recent : flushed) {
+                    if (recent.generation() <= rowGeneration) {
+                        break;
+                    }
+                    VoteDelta delta = flushedOf.apply(recent).get(id);
+                    if (delta != null) {
+                        pending = pending.plus(delta);
+                    }
+                }
+                if (moves == before) {
+                    return pending;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
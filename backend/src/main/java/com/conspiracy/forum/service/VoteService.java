@@ -1,106 +1,190 @@
 package com.conspiracy.forum.service;
 
+import com.conspiracy.forum.dto.VoteBatchResult;
+import com.conspiracy.forum.dto.VoteInput;
 import com.conspiracy.forum.entity.Comment;
 import com.conspiracy.forum.entity.Theory;
-import com.conspiracy.forum.entity.User;
-import com.conspiracy.forum.entity.Vote;
+import com.conspiracy.forum.enums.TheorySort;
+import com.conspiracy.forum.exception.ValidationException;
 import com.conspiracy.forum.repository.CommentRepository;
 import com.conspiracy.forum.repository.TheoryRepository;
-import com.conspiracy.forum.repository.UserRepository;
-import com.conspiracy.forum.repository.VoteRepository;
+import com.conspiracy.forum.util.HotScoreUtils;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class VoteService {
 
-    private final VoteRepository voteRepository;
+    private static final int MAX_BATCH_SIZE = 100;
+
+    private final VoteWriter voteWriter;
     private final TheoryRepository theoryRepository;
     private final CommentRepository commentRepository;
-    private final UserRepository userRepository;
+    private final HotTheoryLeaderboard hotTheoryLeaderboard;
+    private final RisingTheoryTracker risingTheoryTracker;
+    private final TheoryCache theoryCache;
+    private final VoteCounterBuffer voteCounterBuffer;
+    private final ReputationLedger reputationLedger;
 
     @Transactional
-    public Theory voteTheory(User user, Long theoryId, int value) {
+    public Theory voteTheory(Long voterId, Long theoryId, int value) {
         if (value != 1 && value != -1) {
             throw new IllegalArgumentException("Vote value must be 1 or -1");
         }
+        if (!theoryRepository.existsById(theoryId)) {
+            throw new RuntimeException("Theory not found");
+        }
+
+        // The vote is written without being read; counters change in place and reputation goes to the ledger
+        int previousValue = voteWriter.voteTheory(voterId, theoryId, value);
+        int newValue = previousValue == value ? 0 : value;
+        reputationLedger.recordForTheoryAuthor(theoryId, newValue - previousValue);
+        addTheoryVote(theoryId, previousValue, newValue);
 
         Theory theory = theoryRepository.findById(theoryId)
                 .orElseThrow(() -> new RuntimeException("Theory not found"));
-
-        Optional<Vote> existingVote = voteRepository.findByUserAndTheory(user, theory);
-
-        if (existingVote.isPresent()) {
-            Vote vote = existingVote.get();
-            if (vote.getValue() == value) {
-                voteRepository.delete(vote);
-                theory.setScore(theory.getScore() - value);
-                updateUserReputation(theory.getAuthor(), -value);
-            } else {
-                int scoreChange = value - vote.getValue();
-                theory.setScore(theory.getScore() + scoreChange);
-                vote.setValue(value);
-                voteRepository.save(vote);
-                updateUserReputation(theory.getAuthor(), scoreChange);
-            }
-        } else {
-            Vote vote = Vote.builder()
-                    .user(user)
-                    .theory(theory)
-                    .value(value)
-                    .build();
-            voteRepository.save(vote);
-            theory.setScore(theory.getScore() + value);
-            updateUserReputation(theory.getAuthor(), value);
-        }
-
-        return theoryRepository.save(theory);
+        refreshRankings(List.of(theory), newValue != 0 ? Set.of(theoryId) : Set.of());
+        return theory;
     }
 
     @Transactional
-    public Comment voteComment(User user, Long commentId, int value) {
+    public Comment voteComment(Long voterId, Long commentId, int value) {
         if (value != 1 && value != -1) {
             throw new IllegalArgumentException("Vote value must be 1 or -1");
         }
+        if (!commentRepository.existsById(commentId)) {
+            throw new RuntimeException("Comment not found");
+        }
+
+        int previousValue = voteWriter.voteComment(voterId, commentId, value);
+        int newValue = previousValue == value ? 0 : value;
+        reputationLedger.recordForCommentAuthor(commentId, newValue - previousValue);
+        addCommentVote(commentId, previousValue, newValue);
 
-        Comment comment = commentRepository.findById(commentId)
+        return commentRepository.findById(commentId)
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
+    }
+
+    // Replays votes queued by an offline client in one transaction. Votes on the same target apply in order, as
+    // they would one by one, then each target gets a single counter update and its author a single ledger row.
+    // Targets deleted in the meantime are skipped rather than failing the whole batch.
+    @Transactional
+    public VoteBatchResult voteBatch(Long voterId, List<VoteInput> votes) {
+        validateBatch(votes);
+
+        // Sorted, so concurrent batches lock counter rows in the same order
+        Map<Long, List<Integer>> valuesByTheoryId = new TreeMap<>();
+        Map<Long, List<Integer>> valuesByCommentId = new TreeMap<>();
+        for (VoteInput vote : votes) {
+            Map<Long, List<Integer>> valuesByTarget = vote.getTheoryId() != null ? valuesByTheoryId : valuesByCommentId;
+            Long targetId = vote.getTheoryId() != null ? vote.getTheoryId() : vote.getCommentId();
+            valuesByTarget.computeIfAbsent(targetId, id -> new ArrayList<>()).add(vote.getValue());
+        }
+        if (!valuesByTheoryId.isEmpty()) {
+            valuesByTheoryId.keySet().retainAll(theoryRepository.findExistingIds(valuesByTheoryId.keySet()));
+        }
+        if (!valuesByCommentId.isEmpty()) {
+            valuesByCommentId.keySet().retainAll(commentRepository.findExistingIds(valuesByCommentId.keySet()));
+        }
+
+        Map<Long, Integer> previousByTheoryId = voteWriter.voteTheories(voterId, valuesByTheoryId);
+        Map<Long, Integer> reputationByTheoryId = new HashMap<>();
+        Set<Long> votedTheoryIds = new HashSet<>();
+        valuesByTheoryId.forEach((theoryId, values) -> {
+            int previousValue = previousByTheoryId.getOrDefault(theoryId, 0);
+            int newValue = VoteWriter.cast(previousValue, values);
+            reputationByTheoryId.put(theoryId, newValue - previousValue);
+            addTheoryVote(theoryId, previousValue, newValue);
+            if (newValue != 0 && newValue != previousValue) {
+                votedTheoryIds.add(theoryId);
+            }
+        });
+        reputationLedger.recordForTheoryAuthors(reputationByTheoryId);
+
+        Map<Long, Integer> previousByCommentId = voteWriter.voteComments(voterId, valuesByCommentId);
+        Map<Long, Integer> reputationByCommentId = new HashMap<>();
+        valuesByCommentId.forEach((commentId, values) -> {
+            int previousValue = previousByCommentId.getOrDefault(commentId, 0);
+            int newValue = VoteWriter.cast(previousValue, values);
+            reputationByCommentId.put(commentId, newValue - previousValue);
+            addCommentVote(commentId, previousValue, newValue);
+        });
+        reputationLedger.recordForCommentAuthors(reputationByCommentId);
 
-        Optional<Vote> existingVote = voteRepository.findByUserAndComment(user, comment);
-
-        if (existingVote.isPresent()) {
-            Vote vote = existingVote.get();
-            if (vote.getValue() == value) {
-                voteRepository.delete(vote);
-                comment.setScore(comment.getScore() - value);
-                updateUserReputation(comment.getAuthor(), -value);
-            } else {
-                int scoreChange = value - vote.getValue();
-                comment.setScore(comment.getScore() + scoreChange);
-                vote.setValue(value);
-                voteRepository.save(vote);
-                updateUserReputation(comment.getAuthor(), scoreChange);
+        List<Theory> theories = valuesByTheoryId.isEmpty() ? List.of() : sortedById(
+                theoryRepository.findAllById(valuesByTheoryId.keySet()), Theory::getId);
+        List<Comment> comments = valuesByCommentId.isEmpty() ? List.of() : sortedById(
+                commentRepository.findAllById(valuesByCommentId.keySet()), Comment::getId);
+        refreshRankings(theories, votedTheoryIds);
+        return new VoteBatchResult(theories, comments);
+    }
+
+    private void validateBatch(List<VoteInput> votes) {
+        if (votes.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException("At most " + MAX_BATCH_SIZE + " votes can be sent at once");
+        }
+        for (VoteInput vote : votes) {
+            if ((vote.getTheoryId() == null) == (vote.getCommentId() == null)) {
+                throw new ValidationException("Each vote must name either a theory or a comment");
+            }
+            if (vote.getValue() == null || (vote.getValue() != 1 && vote.getValue() != -1)) {
+                throw new ValidationException("Vote value must be 1 or -1");
             }
-        } else {
-            Vote vote = Vote.builder()
-                    .user(user)
-                    .comment(comment)
-                    .value(value)
-                    .build();
-            voteRepository.save(vote);
-            comment.setScore(comment.getScore() + value);
-            updateUserReputation(comment.getAuthor(), value);
         }
+    }
 
-        return commentRepository.save(comment);
+    private void addTheoryVote(Long theoryId, int previousValue, int newValue) {
+        if (voteCounterBuffer.isEnabled()) {
+            // The row is left alone; its counters follow on the next flush and reads merge them until then
+            voteCounterBuffer.addTheoryVote(theoryId, previousValue, newValue);
+            return;
+        }
+        VoteCounterBuffer.VoteDelta delta = VoteCounterBuffer.VoteDelta.of(previousValue, newValue);
+        theoryRepository.addVotes(theoryId, delta.score(), delta.upvotes(), delta.downvotes(),
+                HotScoreUtils.COMMENT_WEIGHT, HotScoreUtils.SECONDS_PER_ORDER);
+    }
+
+    private void addCommentVote(Long commentId, int previousValue, int newValue) {
+        if (voteCounterBuffer.isEnabled()) {
+            voteCounterBuffer.addCommentVote(commentId, previousValue, newValue);
+            return;
+        }
+        VoteCounterBuffer.VoteDelta delta = VoteCounterBuffer.VoteDelta.of(previousValue, newValue);
+        commentRepository.addVotes(commentId, delta.score(), delta.upvotes(), delta.downvotes());
+    }
+
+    // With write-behind the flush refreshes the leaderboard and caches instead
+    private void refreshRankings(List<Theory> theories, Set<Long> votedTheoryIds) {
+        for (Theory theory : theories) {
+            if (votedTheoryIds.contains(theory.getId())) {
+                risingTheoryTracker.record(theory);
+            }
+        }
+        if (voteCounterBuffer.isEnabled() || theories.isEmpty()) {
+            return;
+        }
+        for (Theory theory : theories) {
+            hotTheoryLeaderboard.update(theory);
+            theoryCache.invalidate(theory.getId());
+        }
+        theoryCache.invalidatePages(TheorySort.TOP, TheorySort.HOT, TheorySort.CONTROVERSIAL);
     }
 
-    private void updateUserReputation(User user, int change) {
-        user.setReputation(user.getReputation() + change);
-        userRepository.save(user);
+    private static <T> List<T> sortedById(List<T> entities, Function<T, Long> idOf) {
+        List<T> sorted = new ArrayList<>(entities);
+        sorted.sort(Comparator.comparing(idOf));
+        return sorted;
     }
 }
@@ -0,0 +1,29 @@
+package com.conspiracy.forum.service;
+
+import java.util.List;
+import java.util.Map;
+
+// Stores a user's vote on a theory or comment: inserts it, flips it, or withdraws it when the same value is
+// cast again. Returns the value the vote held before, 0 when there was none, so counters can move by the
+// difference without reading the vote first. Selected with forum.votes.writer
+public interface VoteWriter {
+
+    int voteTheory(Long userId, Long theoryId, int value);
+
+    int voteComment(Long userId, Long commentId, int value);
+
+    // Each target's values are cast in order, exactly as one vote at a time would; the result holds the value
+    // every target's vote had before the first of them
+    Map<Long, Integer> voteTheories(Long userId, Map<Long, List<Integer>> valuesByTheoryId);
+
+    Map<Long, Integer> voteComments(Long userId, Map<Long, List<Integer>> valuesByCommentId);
+
+    // The vote left after casting values in order onto previousValue
+    static int cast(int previousValue, List<Integer> values) {
+        int current = previousValue;
+        for (int value : values) {
+            current = current == value ? 0 : value;
+        }
+        return current;
+    }
+}
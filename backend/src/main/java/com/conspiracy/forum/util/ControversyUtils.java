@@ -0,0 +1,17 @@
+package com.conspiracy.forum.util;
+
+// Controversy grows with the number of votes and with how evenly they split: +500/-498 ranks far above
+// +2/-0, which scores zero because nobody disagreed. The V5 migration backfills with the same formula.
+public final class ControversyUtils {
+
+    private ControversyUtils() {
+    }
+
+    public static double compute(int upvotes, int downvotes) {
+        if (upvotes <= 0 || downvotes <= 0) {
+            return 0;
+        }
+        double balance = (double) Math.min(upvotes, downvotes) / Math.max(upvotes, downvotes);
+        return Math.pow(upvotes + downvotes, balance);
+    }
+}
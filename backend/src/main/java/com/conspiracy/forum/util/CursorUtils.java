@@ -0,0 +1,76 @@
+package com.conspiracy.forum.util;
+
+import com.conspiracy.forum.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+public final class CursorUtils {
+
+    private static final String SEPARATOR = "|";
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    private CursorUtils() {
+    }
+
+    public static String encode(Object sortValue, Long id) {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // A null cursor decodes to a position before the first row of a descending (timestamp, id) ordering
+    public static TimestampCursor decodeTimestamp(String cursor) {
+        if (cursor == null) {
+            return new TimestampCursor(MAX_TIMESTAMP, Long.MAX_VALUE);
+        }
+        String[] parts = decode(cursor);
+        try {
+            return new TimestampCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw invalidCursor();
+        }
+    }
+
+    // A null cursor decodes to a position before the first row of a descending (score, id) ordering
+    public static ScoreCursor decodeScore(String cursor) {
+        if (cursor == null) {
+            return new ScoreCursor(Double.MAX_VALUE, Long.MAX_VALUE);
+        }
+        String[] parts = decode(cursor);
+        try {
+            double score = Double.parseDouble(parts[0]);
+            if (!Double.isFinite(score)) {
+                throw invalidCursor();
+            }
+            return new ScoreCursor(score, Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw invalidCursor();
+        }
+    }
+
+    private static String[] decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalidCursor();
+        }
+        int separator = raw.lastIndexOf(SEPARATOR);
+        if (separator <= 0) {
+            throw invalidCursor();
+        }
+        return new String[] {raw.substring(0, separator), raw.substring(separator + 1)};
+    }
+
+    private static ValidationException invalidCursor() {
+        return new ValidationException("Invalid pagination cursor");
+    }
+
+    public record TimestampCursor(LocalDateTime timestamp, long id) {
+    }
+
+    public record ScoreCursor(double score, long id) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.conspiracy.forum.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Reddit-style ranking: the order of magnitude of the engagement plus the posting time, where every 45000 seconds
+// newer outweighs ten times the engagement, so last week's busy thread sinks below today's. The key only moves
+// when the theory is voted on or commented, so nothing has to age it in between.
+// TheoryRepository.addVotes, addComments and refreshVoteRankings evaluate the same formula in SQL.
+public final class HotScoreUtils {
+
+    public static final int COMMENT_WEIGHT = 2;
+    public static final double SECONDS_PER_ORDER = 45000;
+
+    private HotScoreUtils() {
+    }
+
+    public static double compute(int score, int commentCount, LocalDateTime postedAt) {
+        int engagement = score + COMMENT_WEIGHT * commentCount;
+        double order = Math.signum(engagement) * Math.log10(1 + Math.abs(engagement));
+        LocalDateTime posted = postedAt != null ? postedAt : LocalDateTime.now();
+        return order + posted.toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_ORDER;
+    }
+}
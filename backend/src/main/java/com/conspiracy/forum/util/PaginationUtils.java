@@ -1,10 +1,19 @@
 package com.conspiracy.forum.util;
 
 import com.conspiracy.forum.dto.PageInput;
+import graphql.relay.Connection;
+import graphql.relay.DefaultConnection;
+import graphql.relay.DefaultConnectionCursor;
+import graphql.relay.DefaultEdge;
+import graphql.relay.DefaultPageInfo;
+import graphql.relay.Edge;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.List;
+import java.util.function.Function;
+
 public final class PaginationUtils {
 
     private static final int DEFAULT_PAGE = 0;
@@ -29,4 +38,27 @@ public final class PaginationUtils {
 
         return PageRequest.of(page, size, sort);
     }
+
+    public static int resolveFirst(Integer first) {
+        if (first == null) {
+            return DEFAULT_SIZE;
+        }
+        return Math.max(1, Math.min(first, MAX_SIZE));
+    }
+
+    // Expects up to first + 1 rows; the extra row only signals that a next page exists
+    public static <T> Connection<T> toConnection(List<T> rows, int first, boolean hasPrevious,
+                                                 Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > first;
+        List<Edge<T>> edges = (hasNext ? rows.subList(0, first) : rows).stream()
+                .<Edge<T>>map(node -> new DefaultEdge<>(node, new DefaultConnectionCursor(cursorOf.apply(node))))
+                .toList();
+        DefaultPageInfo pageInfo = new DefaultPageInfo(
+                edges.isEmpty() ? null : edges.get(0).getCursor(),
+                edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor(),
+                hasPrevious,
+                hasNext
+        );
+        return new DefaultConnection<>(edges, pageInfo);
+    }
 }
@@ -12,11 +12,15 @@ public final class SecurityUtils {
     }
 
     public static String getAuthenticatedUsername() {
+        return getAuthentication().getName();
+    }
+
+    public static Authentication getAuthentication() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (isAnonymousOrUnauthenticated(authentication)) {
             throw new UnauthorizedException("You must be logged in to perform this action");
         }
-        return authentication.getName();
+        return authentication;
     }
 
     private static boolean isAnonymousOrUnauthenticated(Authentication authentication) {
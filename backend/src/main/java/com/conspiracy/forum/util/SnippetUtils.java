@@ -0,0 +1,77 @@
+package com.conspiracy.forum.util;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Mirrors the Postgres engine's ts_headline: the content is HTML-escaped and only the StartSel/StopSel markers
+// are markup, so clients can render snippets as HTML without trusting what commenters wrote
+public final class SnippetUtils {
+
+    public static final String HIGHLIGHT_START = "<b>";
+    public static final String HIGHLIGHT_END = "</b>";
+
+    private static final int CONTEXT_BEFORE = 60;
+    private static final int MAX_LENGTH = 200;
+    private static final String ELLIPSIS = "...";
+
+    private SnippetUtils() {
+    }
+
+    public static String highlight(String content, Pattern pattern) {
+        if (content == null || content.isEmpty()) {
+            return "";
+        }
+
+        Matcher matcher = pattern.matcher(content);
+        int start = matcher.find() ? wordStart(content, Math.max(0, matcher.start() - CONTEXT_BEFORE)) : 0;
+        int end = wordEnd(content, Math.min(content.length(), start + MAX_LENGTH));
+
+        StringBuilder snippet = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            snippet.append(ELLIPSIS);
+        }
+        int copied = start;
+        matcher.region(start, end);
+        while (matcher.find()) {
+            escape(content, copied, matcher.start(), snippet);
+            snippet.append(HIGHLIGHT_START);
+            escape(content, matcher.start(), matcher.end(), snippet);
+            snippet.append(HIGHLIGHT_END);
+            copied = matcher.end();
+        }
+        escape(content, copied, end, snippet);
+        if (end < content.length()) {
+            snippet.append(ELLIPSIS);
+        }
+        return snippet.toString();
+    }
+
+    // The same five characters as CommentRepository.ESCAPED_CONTENT
+    private static void escape(String content, int start, int end, StringBuilder out) {
+        for (int i = start; i < end; i++) {
+            char c = content.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static int wordStart(String content, int index) {
+        while (index > 0 && !Character.isWhitespace(content.charAt(index - 1))) {
+            index--;
+        }
+        return index;
+    }
+
+    private static int wordEnd(String content, int index) {
+        while (index < content.length() && !Character.isWhitespace(content.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,4 @@
+-- Comment search across all theories, newest first (searchSnippets). For a common term the planner walks
+-- this index and stops once the page is full instead of sorting every GIN match; rare terms still go
+-- through idx_comments_search_vector and sort only their few matches
+CREATE INDEX IF NOT EXISTS idx_comments_posted_at_id ON comments (posted_at DESC, id DESC);
@@ -0,0 +1,5 @@
+-- hot_score no longer decays with age: it is the order of magnitude of the engagement plus the posting time,
+-- see HotScoreUtils. Existing rows are re-keyed once; idx_theories_hot_score_id serves the new values as is.
+UPDATE theories SET hot_score =
+    SIGN(score + 2 * comment_count) * LOG(1 + ABS(score + 2 * comment_count)) + EXTRACT(EPOCH FROM posted_at) / 45000
+WHERE posted_at IS NOT NULL;
@@ -0,0 +1,39 @@
+-- One index per repository access path; the unique constraints already cover
+-- users (username, email) and votes (user_id, theory_id) / (user_id, comment_id).
+
+-- Theories: latest first, optionally by status (findAllBy, findAllByStatus, findLatestBefore, countByStatus)
+CREATE INDEX IF NOT EXISTS idx_theories_posted_at_id ON theories (posted_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_theories_status_posted_at_id ON theories (status, posted_at DESC, id DESC);
+
+-- Theories: minimum comment count for hot listings (countByCommentCountGreaterThanEqual)
+CREATE INDEX IF NOT EXISTS idx_theories_comment_count_id ON theories (comment_count DESC, id DESC);
+
+-- Theories: per-author listings (findByAuthorId, findByAuthorIdOrderByPostedAtDesc, findLatestByAuthorIds)
+CREATE INDEX IF NOT EXISTS idx_theories_author_posted_at_id ON theories (author_id, posted_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_theory_evidence_urls_theory ON theory_evidence_urls (theory_id);
+
+-- Comments: per-theory listings in either direction (findByTheoryId*, findByTheoryIdBefore,
+-- findLatestByTheoryIds, countByTheoryId)
+CREATE INDEX IF NOT EXISTS idx_comments_theory_posted_at_id ON comments (theory_id, posted_at DESC, id DESC);
+
+-- Comments: root threads only (findByTheoryIdAndParentIsNull*)
+CREATE INDEX IF NOT EXISTS idx_comments_theory_root_posted_at_id ON comments (theory_id, posted_at DESC, id DESC)
+    WHERE parent_id IS NULL;
+
+-- Comments: replies, oldest first (findByParentIdInOrderByPostedAtAscIdAsc)
+CREATE INDEX IF NOT EXISTS idx_comments_parent_posted_at_id ON comments (parent_id, posted_at, id);
+
+-- Comments: per-author listings (findByAuthorId, findLatestByAuthorIds)
+CREATE INDEX IF NOT EXISTS idx_comments_author_posted_at_id ON comments (author_id, posted_at DESC, id DESC);
+
+-- Votes: foreign key lookups when theories and comments are deleted
+CREATE INDEX IF NOT EXISTS idx_votes_theory ON votes (theory_id) WHERE theory_id IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_votes_comment ON votes (comment_id) WHERE comment_id IS NOT NULL;
+
+-- Substring keyword search (findByFilters, findSliceByFilters, searchByKeyword)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_theories_title_trgm ON theories USING GIN (LOWER(title) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_theories_content_trgm ON theories USING GIN (LOWER(content) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_comments_content_trgm ON comments USING GIN (LOWER(content) gin_trgm_ops);
@@ -0,0 +1,10 @@
+-- Time-decayed ranking for hotTheories; see HotScoreUtils for the formula
+ALTER TABLE theories ADD COLUMN hot_score DOUBLE PRECISION NOT NULL DEFAULT 0;
+
+UPDATE theories SET hot_score = (score + 2 * comment_count + 1) /
+    POWER(GREATEST(EXTRACT(EPOCH FROM (LOCALTIMESTAMP - posted_at)), 0) / 3600.0 + 2, 1.8)
+WHERE posted_at IS NOT NULL;
+
+-- Hot pages are read off this index from now on; V3's idx_theories_comment_count_id no longer orders them
+-- and only serves the hotOnly minimum-comment count (countByCommentCountGreaterThanEqual)
+CREATE INDEX idx_theories_hot_score_id ON theories (hot_score DESC, id DESC);
@@ -0,0 +1,28 @@
+-- Upvote and downvote counts next to the net score; controversy is ControversyUtils' formula
+ALTER TABLE theories ADD COLUMN upvotes INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE theories ADD COLUMN downvotes INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE theories ADD COLUMN controversy DOUBLE PRECISION NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN upvotes INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN downvotes INTEGER NOT NULL DEFAULT 0;
+
+UPDATE theories t SET upvotes = v.up, downvotes = v.down
+FROM (SELECT theory_id,
+             COUNT(*) FILTER (WHERE vote_value > 0) AS up,
+             COUNT(*) FILTER (WHERE vote_value < 0) AS down
+      FROM votes WHERE theory_id IS NOT NULL GROUP BY theory_id) v
+WHERE v.theory_id = t.id;
+
+UPDATE comments c SET upvotes = v.up, downvotes = v.down
+FROM (SELECT comment_id,
+             COUNT(*) FILTER (WHERE vote_value > 0) AS up,
+             COUNT(*) FILTER (WHERE vote_value < 0) AS down
+      FROM votes WHERE comment_id IS NOT NULL GROUP BY comment_id) v
+WHERE v.comment_id = c.id;
+
+UPDATE theories SET controversy = POWER(upvotes + downvotes,
+    CAST(LEAST(upvotes, downvotes) AS DOUBLE PRECISION) / GREATEST(upvotes, downvotes))
+WHERE upvotes > 0 AND downvotes > 0;
+
+-- One index per TheorySort; NEW uses idx_theories_posted_at_id and HOT idx_theories_hot_score_id
+CREATE INDEX idx_theories_score_id ON theories (score DESC, id DESC);
+CREATE INDEX idx_theories_controversy_id ON theories (controversy DESC, id DESC);
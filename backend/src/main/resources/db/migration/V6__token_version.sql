@@ -0,0 +1,6 @@
+-- Tokens carry the version they were issued under; bumping it revokes every earlier token
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN tokens_revoked_at TIMESTAMP;
+
+-- Nodes poll for revocations made elsewhere since their last look
+CREATE INDEX idx_users_tokens_revoked_at ON users (tokens_revoked_at) WHERE tokens_revoked_at IS NOT NULL;
@@ -0,0 +1,11 @@
+-- Reputation changes are appended here instead of updating the author's row on every vote;
+-- ReputationLedger folds them into users.reputation and reads add whatever is still pending
+CREATE TABLE reputation_deltas (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    delta INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_reputation_delta_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_reputation_deltas_user ON reputation_deltas (user_id);
@@ -0,0 +1,3 @@
+-- Votes are upserted with ON CONFLICT, which cannot delete: a withdrawn vote keeps its row with value 0,
+-- and the value an upsert replaced is kept here because RETURNING only sees the new row
+ALTER TABLE votes ADD COLUMN previous_value INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Stamped by each write-behind flush, so reads can tell whether a row already holds the amounts in flight
+ALTER TABLE theories ADD COLUMN counter_generation BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE comments ADD COLUMN counter_generation BIGINT NOT NULL DEFAULT 0;
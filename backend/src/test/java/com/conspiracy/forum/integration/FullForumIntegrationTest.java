@@ -16,6 +16,7 @@ import com.conspiracy.forum.repository.VoteRepository;
 import com.conspiracy.forum.service.AuthService;
 import com.conspiracy.forum.service.CommentService;
 import com.conspiracy.forum.service.TheoryService;
+import com.conspiracy.forum.service.UserService;
 import com.conspiracy.forum.service.VoteService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -67,6 +68,9 @@ class FullForumIntegrationTest {
     @Autowired
     private VoteService voteService;
 
+    @Autowired
+    private UserService userService;
+
     @BeforeEach
     void setUp() {
         voteRepository.deleteAll();
@@ -365,25 +369,22 @@ class FullForumIntegrationTest {
         assertEquals(0, author.getReputation());
 
         // Upvote
-        voteService.voteTheory(voter, theory.getId(), 1);
+        voteService.voteTheory(voter.getId(), theory.getId(), 1);
         Theory afterUpvote = theoryRepository.findById(theory.getId()).orElseThrow();
-        User authorAfterUpvote = userRepository.findById(author.getId()).orElseThrow();
         assertEquals(1, afterUpvote.getScore());
-        assertEquals(1, authorAfterUpvote.getReputation());
+        assertEquals(1, userService.getReputation(author.getId()));
 
         // Change to downvote
-        voteService.voteTheory(voter, theory.getId(), -1);
+        voteService.voteTheory(voter.getId(), theory.getId(), -1);
         Theory afterDownvote = theoryRepository.findById(theory.getId()).orElseThrow();
-        User authorAfterDownvote = userRepository.findById(author.getId()).orElseThrow();
         assertEquals(-1, afterDownvote.getScore());
-        assertEquals(-1, authorAfterDownvote.getReputation());
+        assertEquals(-1, userService.getReputation(author.getId()));
 
         // Remove vote (click same button again)
-        voteService.voteTheory(voter, theory.getId(), -1);
+        voteService.voteTheory(voter.getId(), theory.getId(), -1);
         Theory afterRemove = theoryRepository.findById(theory.getId()).orElseThrow();
-        User authorAfterRemove = userRepository.findById(author.getId()).orElseThrow();
         assertEquals(0, afterRemove.getScore());
-        assertEquals(0, authorAfterRemove.getReputation());
+        assertEquals(0, userService.getReputation(author.getId()));
     }
 
     /**
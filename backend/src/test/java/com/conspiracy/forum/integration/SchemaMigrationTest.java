@@ -0,0 +1,127 @@
+package com.conspiracy.forum.integration;
+
+import com.conspiracy.forum.ForumApplication;
+import com.conspiracy.forum.config.TestMailConfig;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.hibernate.tool.schema.spi.SchemaManagementException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the Flyway migrations against a real Postgres and lets Hibernate validate the entities against them.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class SchemaMigrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void migrations_ShouldApplyInOrder() {
+        List<String> versions = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE success ORDER BY installed_rank", String.class);
+
+        assertEquals(List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"), versions);
+    }
+
+    @Test
+    void migrations_ShouldCreateIndexesForRepositoryQueries() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE schemaname = 'public'", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "idx_theories_search_vector",
+                "idx_theories_posted_at_id",
+                "idx_theories_status_posted_at_id",
+                "idx_theories_comment_count_id",
+                "idx_theories_hot_score_id",
+                "idx_theories_score_id",
+                "idx_theories_controversy_id",
+                "idx_theories_author_posted_at_id",
+                "idx_theory_evidence_urls_theory",
+                "idx_comments_search_vector",
+                "idx_comments_posted_at_id",
+                "idx_comments_theory_posted_at_id",
+                "idx_comments_theory_root_posted_at_id",
+                "idx_comments_parent_posted_at_id",
+                "idx_comments_author_posted_at_id",
+                "idx_votes_theory",
+                "idx_votes_comment",
+                "idx_users_tokens_revoked_at",
+                "idx_reputation_deltas_user",
+                "idx_theories_title_trgm",
+                "idx_theories_content_trgm",
+                "idx_comments_content_trgm"
+        )), () -> "Missing indexes, found: " + indexes);
+    }
+
+    @Test
+    void startup_ShouldFail_WhenSchemaDriftsFromEntities() {
+        jdbcTemplate.execute("CREATE DATABASE drifted");
+        String url = postgres.getJdbcUrl("postgres", "drifted");
+        Flyway.configure().dataSource(url, "postgres", "postgres").load().migrate();
+        new JdbcTemplate(postgres.getDatabase("postgres", "drifted"))
+                .execute("ALTER TABLE theories DROP COLUMN score");
+
+        Exception exception = assertThrows(Exception.class, () -> new SpringApplicationBuilder(
+                ForumApplication.class, TestMailConfig.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run(
+                        "--spring.datasource.url=" + url,
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--spring.datasource.driver-class-name=org.postgresql.Driver",
+                        "--spring.flyway.enabled=true",
+                        "--spring.jpa.hibernate.ddl-auto=validate",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect")
+                .close());
+
+        Throwable cause = NestedExceptionUtils.getRootCause(exception);
+        assertInstanceOf(SchemaManagementException.class, cause);
+        assertTrue(cause.getMessage().contains("score"));
+    }
+}
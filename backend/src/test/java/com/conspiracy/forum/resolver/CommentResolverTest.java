@@ -15,6 +15,9 @@ import com.conspiracy.forum.repository.VoteRepository;
 import com.conspiracy.forum.service.AuthService;
 import com.conspiracy.forum.service.CommentService;
 import com.conspiracy.forum.service.TheoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -56,6 +59,9 @@ class CommentResolverTest {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private String authToken;
     private User testUser;
     private Theory testTheory;
@@ -334,4 +340,245 @@ class CommentResolverTest {
                 .path("createComment.content").entity(String.class).isEqualTo("This is a reply to the root comment.")
                 .path("createComment.parent.id").entity(String.class).isEqualTo(rootComment.getId().toString());
     }
+
+    @Test
+    void rootCommentsByTheory_ShouldServeNestedRepliesFromSingleQuery() {
+        Comment olderRoot = commentService.createComment(CommentInput.builder()
+                .content("The older root comment.")
+                .theoryId(testTheory.getId())
+                .build(), testUser.getUsername());
+        Comment newerRoot = commentService.createComment(CommentInput.builder()
+                .content("The newer root comment.")
+                .theoryId(testTheory.getId())
+                .build(), testUser.getUsername());
+        Comment reply = commentService.createComment(CommentInput.builder()
+                .content("A reply to the older root.")
+                .theoryId(testTheory.getId())
+                .parentId(olderRoot.getId())
+                .build(), testUser.getUsername());
+        commentService.createComment(CommentInput.builder()
+                .content("A reply to the reply itself.")
+                .theoryId(testTheory.getId())
+                .parentId(reply.getId())
+                .build(), testUser.getUsername());
+
+        String query = """
+            query($theoryId: ID!) {
+                rootCommentsByTheory(theoryId: $theoryId) {
+                    id
+                    replies {
+                        content
+                        replies {
+                            content
+                            replies {
+                                id
+                            }
+                        }
+                    }
+                }
+            }
+            """;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(query)
+                .variable("theoryId", testTheory.getId())
+                .execute()
+                .path("rootCommentsByTheory").entityList(Object.class).hasSize(2)
+                .path("rootCommentsByTheory[0].id").entity(String.class).isEqualTo(newerRoot.getId().toString())
+                .path("rootCommentsByTheory[0].replies").entityList(Object.class).hasSize(0)
+                .path("rootCommentsByTheory[1].replies[0].content").entity(String.class)
+                .isEqualTo("A reply to the older root.")
+                .path("rootCommentsByTheory[1].replies[0].replies[0].content").entity(String.class)
+                .isEqualTo("A reply to the reply itself.")
+                .path("rootCommentsByTheory[1].replies[0].replies[0].replies").entityList(Object.class).hasSize(0);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void comment_ShouldBatchLoadRepliesOutsideOfAThread() {
+        Comment root = commentService.createComment(CommentInput.builder()
+                .content("A root comment to reply to.")
+                .theoryId(testTheory.getId())
+                .build(), testUser.getUsername());
+        commentService.createComment(CommentInput.builder()
+                .content("The only reply to the root.")
+                .theoryId(testTheory.getId())
+                .parentId(root.getId())
+                .build(), testUser.getUsername());
+
+        String query = """
+            query($id: ID!) {
+                comment(id: $id) {
+                    replies {
+                        content
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .variable("id", root.getId())
+                .execute()
+                .path("comment.replies").entityList(Object.class).hasSize(1)
+                .path("comment.replies[0].content").entity(String.class).isEqualTo("The only reply to the root.");
+    }
+
+    @Test
+    void searchComments_ShouldReturnHighlightedSnippets_ScopedToTheory() {
+        Theory otherTheory = theoryService.createTheory(TheoryInput.builder()
+                .title("Another Theory for Comments")
+                .content("This theory exists to test search scoping.")
+                .build(), testUser.getUsername());
+        commentService.createComment(CommentInput.builder()
+                .content("The chemtrails over the harbor were thicker today.")
+                .theoryId(testTheory.getId())
+                .build(), testUser.getUsername());
+        commentService.createComment(CommentInput.builder()
+                .content("No chemtrails spotted from my window.")
+                .theoryId(otherTheory.getId())
+                .build(), testUser.getUsername());
+
+        String query = """
+            query($query: String!, $theoryId: ID) {
+                searchComments(query: $query, theoryId: $theoryId) {
+                    snippet
+                    comment {
+                        id
+                        theory {
+                            id
+                        }
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .variable("query", "Chemtrails")
+                .variable("theoryId", testTheory.getId())
+                .execute()
+                .path("searchComments").entityList(Object.class).hasSize(1)
+                .path("searchComments[0].snippet").entity(String.class)
+                .isEqualTo("The <b>chemtrails</b> over the harbor were thicker today.")
+                .path("searchComments[0].comment.theory.id").entity(String.class)
+                .isEqualTo(testTheory.getId().toString());
+
+        graphQlTester.document(query)
+                .variable("query", "chemtrails")
+                .execute()
+                .path("searchComments").entityList(Object.class).hasSize(2);
+    }
+
+    @Test
+    void searchComments_ShouldFail_WhenQueryIsBlank() {
+        String query = """
+            query {
+                searchComments(query: "   ") {
+                    snippet
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertFalse(errors.isEmpty());
+                    assertTrue(errors.get(0).getMessage().contains("Search query must not be empty"));
+                });
+    }
+
+    @Test
+    void commentsByTheoryConnection_ShouldPageThroughComments() {
+        for (int i = 0; i < 3; i++) {
+            commentService.createComment(CommentInput.builder()
+                    .content("Keyset comment number " + i)
+                    .theoryId(testTheory.getId())
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($theoryId: ID!, $after: String) {
+                commentsByTheoryConnection(theoryId: $theoryId, first: 2, after: $after) {
+                    edges {
+                        node {
+                            content
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        endCursor
+                    }
+                }
+            }
+            """;
+
+        String endCursor = graphQlTester.document(query)
+                .variable("theoryId", testTheory.getId())
+                .execute()
+                .path("commentsByTheoryConnection.edges").entityList(Object.class).hasSize(2)
+                .path("commentsByTheoryConnection.edges[0].node.content").entity(String.class)
+                .isEqualTo("Keyset comment number 2")
+                .path("commentsByTheoryConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("commentsByTheoryConnection.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("theoryId", testTheory.getId())
+                .variable("after", endCursor)
+                .execute()
+                .path("commentsByTheoryConnection.edges").entityList(Object.class).hasSize(1)
+                .path("commentsByTheoryConnection.edges[0].node.content").entity(String.class)
+                .isEqualTo("Keyset comment number 0")
+                .path("commentsByTheoryConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false);
+    }
+
+    @Test
+    void commentsByTheory_ShouldFetchFullPage_WithoutCountQuery() {
+        for (int i = 0; i < 3; i++) {
+            commentService.createComment(CommentInput.builder()
+                    .content("Sliced comment number " + i)
+                    .theoryId(testTheory.getId())
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($theoryId: ID!) {
+                commentsByTheory(theoryId: $theoryId, page: { page: 1, size: 2 }) {
+                    content
+                }
+            }
+            """;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(query)
+                .variable("theoryId", testTheory.getId())
+                .execute()
+                .path("commentsByTheory").entityList(Object.class).hasSize(2);
+
+        // Only the page query: no COUNT and no existence check when the page has rows
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void commentsByTheory_ShouldFail_WhenTheoryDoesNotExist() {
+        String query = """
+            query {
+                commentsByTheory(theoryId: "99999") {
+                    id
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertFalse(errors.isEmpty());
+                    assertTrue(errors.get(0).getMessage().contains("Theory not found"));
+                });
+    }
 }
@@ -4,23 +4,30 @@ import com.conspiracy.forum.config.TestMailConfig;
 import com.conspiracy.forum.dto.AuthResponse;
 import com.conspiracy.forum.dto.RegisterRequest;
 import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Comment;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.TheoryStatus;
 import com.conspiracy.forum.repository.CommentRepository;
 import com.conspiracy.forum.repository.TheoryRepository;
 import com.conspiracy.forum.repository.UserRepository;
 import com.conspiracy.forum.repository.VoteRepository;
 import com.conspiracy.forum.service.AuthService;
 import com.conspiracy.forum.service.TheoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.graphql.test.tester.HttpGraphQlTester;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +60,9 @@ class TheoryResolverTest {
     @Autowired
     private TheoryService theoryService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     private String authToken;
     private User testUser;
 
@@ -286,6 +296,7 @@ class TheoryResolverTest {
                     currentPage
                     hasNext
                     hasPrevious
+                    isEstimate
                 }
             }
             """;
@@ -297,7 +308,8 @@ class TheoryResolverTest {
                 .path("theoriesPaginated.totalPages").entity(Integer.class).isEqualTo(2)
                 .path("theoriesPaginated.currentPage").entity(Integer.class).isEqualTo(1)
                 .path("theoriesPaginated.hasNext").entity(Boolean.class).isEqualTo(true)
-                .path("theoriesPaginated.hasPrevious").entity(Boolean.class).isEqualTo(false);
+                .path("theoriesPaginated.hasPrevious").entity(Boolean.class).isEqualTo(false)
+                .path("theoriesPaginated.isEstimate").entity(Boolean.class).isEqualTo(false);
     }
 
     @Test
@@ -328,4 +340,411 @@ class TheoryResolverTest {
                 .path("theories").entityList(Object.class).hasSize(1)
                 .path("theories[0].title").entity(String.class).isEqualTo("Aliens from Space");
     }
+
+    @Test
+    void theories_ShouldBatchLoadAuthors_AndMaskAnonymousPosts() {
+        for (int i = 0; i < 3; i++) {
+            RegisterRequest request = RegisterRequest.builder()
+                    .username("author" + i)
+                    .email("author" + i + "@example.com")
+                    .password("password123")
+                    .build();
+            authService.register(request);
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Theory by author" + i)
+                    .content("Content written by author number " + i + ".")
+                    .build(), "author" + i);
+        }
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Anonymous Theory")
+                .content("Nobody knows who wrote this theory content.")
+                .anonymousPost(true)
+                .build(), testUser.getUsername());
+
+        String query = """
+            query {
+                theories {
+                    title
+                    authorName
+                    author {
+                        username
+                    }
+                }
+            }
+            """;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Map<String, Object>> theories = graphQlTester.document(query)
+                .execute()
+                .path("theories").entityList(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .hasSize(4)
+                .get();
+
+        for (Map<String, Object> theory : theories) {
+            if ("Anonymous Theory".equals(theory.get("title"))) {
+                assertEquals("Anonymous Truth Seeker", theory.get("authorName"));
+                assertNull(theory.get("author"));
+            } else {
+                String title = theory.get("title").toString();
+                String expected = title.substring(title.lastIndexOf(' ') + 1);
+                assertEquals(expected, theory.get("authorName"));
+                assertEquals(Map.of("username", expected), theory.get("author"));
+            }
+        }
+        // The page query plus a single batched lookup for all authors
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void theories_ShouldResolveCommentsForAllTheoriesInOneQuery() {
+        Theory first = theoryService.createTheory(TheoryInput.builder()
+                .title("First Theory")
+                .content("First theory content with enough characters.")
+                .build(), testUser.getUsername());
+        Theory second = theoryService.createTheory(TheoryInput.builder()
+                .title("Second Theory")
+                .content("Second theory content with enough characters.")
+                .build(), testUser.getUsername());
+        commentRepository.save(Comment.builder()
+                .content("Comment on the first theory.")
+                .author(testUser)
+                .theory(first)
+                .build());
+
+        String query = """
+            query {
+                theories {
+                    title
+                    comments {
+                        content
+                    }
+                }
+            }
+            """;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<Map<String, Object>> theories = graphQlTester.document(query)
+                .execute()
+                .path("theories").entityList(new ParameterizedTypeReference<Map<String, Object>>() {})
+                .hasSize(2)
+                .get();
+
+        for (Map<String, Object> theory : theories) {
+            List<?> comments = (List<?>) theory.get("comments");
+            assertEquals(first.getTitle().equals(theory.get("title")) ? 1 : 0, comments.size());
+        }
+        assertEquals(second.getTitle(), theories.get(0).get("title"));
+        // The page query plus a single batched comment lookup, without per-theory existence checks
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void theory_ShouldResolveOnlyTheLatestComments_EvenForASingleTheory() {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Busy Theory")
+                .content("A theory with more comments than a batch returns.")
+                .build(), testUser.getUsername());
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            comments.add(Comment.builder()
+                    .content("Comment number " + i + " on the busy theory.")
+                    .author(testUser)
+                    .theory(theory)
+                    .build());
+        }
+        commentRepository.saveAll(comments);
+
+        String query = """
+            query($id: ID!) {
+                theory(id: $id) {
+                    comments {
+                        id
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .variable("id", theory.getId())
+                .execute()
+                .path("theory.comments").entityList(Object.class).hasSize(100)
+                .path("theory.comments[0].id").entity(Long.class).isEqualTo(comments.get(100).getId());
+    }
+
+    @Test
+    void theoriesConnection_ShouldPageByPostedAt_AndFilterByStatus() {
+        for (int i = 0; i < 4; i++) {
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Keyset Theory " + i)
+                    .content("Keyset theory content number " + i + ".")
+                    .status(i % 2 == 0 ? TheoryStatus.CONFIRMED : TheoryStatus.DEBUNKED)
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($after: String) {
+                theoriesConnection(filter: { status: CONFIRMED }, first: 1, after: $after) {
+                    edges {
+                        node {
+                            title
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        hasPreviousPage
+                        endCursor
+                    }
+                }
+            }
+            """;
+
+        String endCursor = graphQlTester.document(query)
+                .execute()
+                .path("theoriesConnection.edges[0].node.title").entity(String.class).isEqualTo("Keyset Theory 2")
+                .path("theoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("theoriesConnection.pageInfo.hasPreviousPage").entity(Boolean.class).isEqualTo(false)
+                .path("theoriesConnection.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("after", endCursor)
+                .execute()
+                .path("theoriesConnection.edges").entityList(Object.class).hasSize(1)
+                .path("theoriesConnection.edges[0].node.title").entity(String.class).isEqualTo("Keyset Theory 0")
+                .path("theoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false)
+                .path("theoriesConnection.pageInfo.hasPreviousPage").entity(Boolean.class).isEqualTo(true);
+    }
+
+    @Test
+    void theoriesConnection_ShouldPageByScore_WhenSortedByTop() {
+        createSortedTheories();
+
+        assertConnectionPages("TOP", List.of("Sorted A", "Sorted C"), List.of("Sorted B"));
+    }
+
+    @Test
+    void theoriesConnection_ShouldPageByHotScore_WhenSortedByHot() {
+        createSortedTheories();
+
+        assertConnectionPages("HOT", List.of("Sorted B", "Sorted C"), List.of("Sorted A"));
+    }
+
+    @Test
+    void theoriesConnection_ShouldPageByControversy_WhenSortedByControversial() {
+        createSortedTheories();
+
+        assertConnectionPages("CONTROVERSIAL", List.of("Sorted B", "Sorted C"), List.of("Sorted A"));
+    }
+
+    // C ties B on score and A on hot score, and wins both ties by its higher id; D leads every order but is filtered out
+    private void createSortedTheories() {
+        createSortedTheory("Sorted A", TheoryStatus.CONFIRMED, 10, 1.0, 2.0);
+        createSortedTheory("Sorted B", TheoryStatus.CONFIRMED, 5, 8.0, 9.0);
+        createSortedTheory("Sorted C", TheoryStatus.CONFIRMED, 5, 4.0, 2.0);
+        createSortedTheory("Sorted D", TheoryStatus.DEBUNKED, 20, 9.0, 10.0);
+    }
+
+    private void createSortedTheory(String title, TheoryStatus status, int score, double controversy,
+                                    double hotScore) {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title(title)
+                .content("Sorted theory content for " + title + ".")
+                .status(status)
+                .build(), testUser.getUsername());
+        theory.setScore(score);
+        theory.setControversy(controversy);
+        theory.setHotScore(hotScore);
+        theoryRepository.save(theory);
+    }
+
+    private void assertConnectionPages(String sort, List<String> firstPage, List<String> secondPage) {
+        String query = """
+            query($sort: TheorySort, $after: String) {
+                theoriesConnection(filter: { status: CONFIRMED, sort: $sort }, first: 2, after: $after) {
+                    edges {
+                        node {
+                            title
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        endCursor
+                    }
+                }
+            }
+            """;
+
+        String endCursor = graphQlTester.document(query)
+                .variable("sort", sort)
+                .execute()
+                .path("theoriesConnection.edges[*].node.title").entityList(String.class).isEqualTo(firstPage)
+                .path("theoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("theoriesConnection.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("sort", sort)
+                .variable("after", endCursor)
+                .execute()
+                .path("theoriesConnection.edges[*].node.title").entityList(String.class).isEqualTo(secondPage)
+                .path("theoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false);
+    }
+
+    @Test
+    void hotTheoriesConnection_ShouldPageByHotScore_BreakingTiesById() {
+        int[] commentCounts = {3, 7, 3};
+        for (int i = 0; i < commentCounts.length; i++) {
+            Theory theory = theoryService.createTheory(TheoryInput.builder()
+                    .title("Hot Theory " + i)
+                    .content("Hot theory content number " + i + ".")
+                    .build(), testUser.getUsername());
+            theory.setCommentCount(commentCounts[i]);
+            theory.setHotScore(3);
+            if (i == 1) {
+                theory.setHotScore(5);
+            }
+            theoryRepository.save(theory);
+        }
+
+        String query = """
+            query($after: String) {
+                hotTheoriesConnection(first: 2, after: $after) {
+                    edges {
+                        node {
+                            title
+                        }
+                    }
+                    pageInfo {
+                        hasNextPage
+                        endCursor
+                    }
+                }
+            }
+            """;
+
+        String endCursor = graphQlTester.document(query)
+                .execute()
+                .path("hotTheoriesConnection.edges[0].node.title").entity(String.class).isEqualTo("Hot Theory 1")
+                .path("hotTheoriesConnection.edges[1].node.title").entity(String.class).isEqualTo("Hot Theory 2")
+                .path("hotTheoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("hotTheoriesConnection.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("after", endCursor)
+                .execute()
+                .path("hotTheoriesConnection.edges").entityList(Object.class).hasSize(1)
+                .path("hotTheoriesConnection.edges[0].node.title").entity(String.class).isEqualTo("Hot Theory 0")
+                .path("hotTheoriesConnection.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false);
+    }
+
+    @Test
+    void risingTheories_ShouldRankByRecentActivity() {
+        Theory quiet = theoryService.createTheory(TheoryInput.builder()
+                .title("Quiet Theory")
+                .content("Quiet theory content that nobody reads.")
+                .build(), testUser.getUsername());
+        Theory busy = theoryService.createTheory(TheoryInput.builder()
+                .title("Busy Theory")
+                .content("Busy theory content that everybody argues about.")
+                .build(), testUser.getUsername());
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Untouched Theory")
+                .content("Untouched theory content without any activity.")
+                .build(), testUser.getUsername());
+
+        String vote = """
+            mutation($theoryId: ID!) {
+                voteTheory(id: $theoryId, value: 1) {
+                    id
+                }
+            }
+            """;
+        String comment = """
+            mutation($theoryId: ID!) {
+                createComment(input: { content: "Rising comment", theoryId: $theoryId }) {
+                    id
+                }
+            }
+            """;
+        authenticatedTester().document(vote).variable("theoryId", quiet.getId()).execute();
+        authenticatedTester().document(vote).variable("theoryId", busy.getId()).execute();
+        authenticatedTester().document(comment).variable("theoryId", busy.getId()).execute();
+
+        String query = """
+            query {
+                risingTheories(page: { page: 1, size: 50 }) {
+                    title
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .execute()
+                .path("risingTheories").entityList(Object.class).hasSize(2)
+                .path("risingTheories[0].title").entity(String.class).isEqualTo("Busy Theory")
+                .path("risingTheories[1].title").entity(String.class).isEqualTo("Quiet Theory");
+    }
+
+    @Test
+    void theoriesConnection_ShouldReject_KeywordFilter() {
+        String query = """
+            query {
+                theoriesConnection(filter: { keyword: "moon" }) {
+                    edges {
+                        cursor
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .execute()
+                .errors()
+                .satisfy(errors -> {
+                    assertFalse(errors.isEmpty());
+                    assertTrue(errors.get(0).getMessage().contains("does not support cursor pagination"));
+                });
+    }
+
+    @Test
+    void theories_ShouldFetchPagesWithoutCountQuery() {
+        for (int i = 0; i < 3; i++) {
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Sliced Theory " + i)
+                    .content("Sliced theory content number " + i + ".")
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($page: Int!) {
+                theories(page: { page: $page, size: 2 }) {
+                    title
+                }
+                hotTheories(page: { page: $page, size: 2 }) {
+                    title
+                }
+            }
+            """;
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        graphQlTester.document(query)
+                .variable("page", 1)
+                .execute()
+                .path("theories").entityList(Object.class).hasSize(2)
+                .path("theories[0].title").entity(String.class).isEqualTo("Sliced Theory 2")
+                .path("hotTheories").entityList(Object.class).hasSize(2);
+        graphQlTester.document(query)
+                .variable("page", 2)
+                .execute()
+                .path("theories").entityList(Object.class).hasSize(1)
+                .path("theories[0].title").entity(String.class).isEqualTo("Sliced Theory 0")
+                .path("hotTheories").entityList(Object.class).hasSize(1);
+
+        // One page query per field and request; totals are never counted
+        assertEquals(4, statistics.getPrepareStatementCount());
+    }
 }
@@ -2,13 +2,18 @@ package com.conspiracy.forum.resolver;
 
 import com.conspiracy.forum.config.TestMailConfig;
 import com.conspiracy.forum.dto.AuthResponse;
+import com.conspiracy.forum.dto.CommentInput;
 import com.conspiracy.forum.dto.RegisterRequest;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
 import com.conspiracy.forum.repository.CommentRepository;
 import com.conspiracy.forum.repository.TheoryRepository;
 import com.conspiracy.forum.repository.UserRepository;
 import com.conspiracy.forum.repository.VoteRepository;
 import com.conspiracy.forum.service.AuthService;
+import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.service.TheoryService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -44,6 +49,12 @@ class UserResolverTest {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
     private String authToken;
     private User testUser;
 
@@ -204,4 +215,111 @@ class UserResolverTest {
                 .errors()
                 .satisfy(errors -> assertFalse(errors.isEmpty()));
     }
+
+    @Test
+    void userTheories_ShouldPageThroughConnectionWithCursors() {
+        for (int i = 0; i < 3; i++) {
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Profile Theory " + i)
+                    .content("Profile theory content number " + i + ".")
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($id: ID!, $after: String) {
+                user(id: $id) {
+                    theories(first: 2, after: $after) {
+                        edges {
+                            cursor
+                            node {
+                                title
+                            }
+                        }
+                        pageInfo {
+                            hasNextPage
+                            hasPreviousPage
+                            endCursor
+                        }
+                    }
+                }
+            }
+            """;
+
+        String endCursor = graphQlTester.document(query)
+                .variable("id", testUser.getId())
+                .execute()
+                .path("user.theories.edges").entityList(Object.class).hasSize(2)
+                .path("user.theories.edges[0].node.title").entity(String.class).isEqualTo("Profile Theory 2")
+                .path("user.theories.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true)
+                .path("user.theories.pageInfo.hasPreviousPage").entity(Boolean.class).isEqualTo(false)
+                .path("user.theories.pageInfo.endCursor").entity(String.class).get();
+
+        graphQlTester.document(query)
+                .variable("id", testUser.getId())
+                .variable("after", endCursor)
+                .execute()
+                .path("user.theories.edges").entityList(Object.class).hasSize(1)
+                .path("user.theories.edges[0].node.title").entity(String.class).isEqualTo("Profile Theory 0")
+                .path("user.theories.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(false)
+                .path("user.theories.pageInfo.hasPreviousPage").entity(Boolean.class).isEqualTo(true);
+    }
+
+    @Test
+    void userComments_ShouldReturnBoundedConnection() {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Theory With Comments")
+                .content("Theory content that attracts comments.")
+                .build(), testUser.getUsername());
+        for (int i = 0; i < 3; i++) {
+            commentService.createComment(CommentInput.builder()
+                    .content("Profile comment number " + i)
+                    .theoryId(theory.getId())
+                    .build(), testUser.getUsername());
+        }
+
+        String query = """
+            query($id: ID!) {
+                user(id: $id) {
+                    comments(first: 2) {
+                        edges {
+                            node {
+                                content
+                            }
+                        }
+                        pageInfo {
+                            hasNextPage
+                        }
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .variable("id", testUser.getId())
+                .execute()
+                .path("user.comments.edges").entityList(Object.class).hasSize(2)
+                .path("user.comments.edges[0].node.content").entity(String.class).isEqualTo("Profile comment number 2")
+                .path("user.comments.pageInfo.hasNextPage").entity(Boolean.class).isEqualTo(true);
+    }
+
+    @Test
+    void userTheories_ShouldReject_MalformedCursor() {
+        String query = """
+            query($id: ID!) {
+                user(id: $id) {
+                    theories(after: "not-a-cursor") {
+                        edges {
+                            cursor
+                        }
+                    }
+                }
+            }
+            """;
+
+        graphQlTester.document(query)
+                .variable("id", testUser.getId())
+                .execute()
+                .errors()
+                .satisfy(errors -> assertFalse(errors.isEmpty()));
+    }
 }
@@ -15,6 +15,7 @@ import com.conspiracy.forum.repository.VoteRepository;
 import com.conspiracy.forum.service.AuthService;
 import com.conspiracy.forum.service.CommentService;
 import com.conspiracy.forum.service.TheoryService;
+import com.conspiracy.forum.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,6 +25,9 @@ import org.springframework.context.annotation.Import;
 import org.springframework.graphql.test.tester.HttpGraphQlTester;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+import java.util.Map;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -56,6 +60,9 @@ class VoteResolverTest {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private UserService userService;
+
     private String authToken;
     private User testUser;
     private User authorUser;
@@ -127,6 +134,8 @@ class VoteResolverTest {
                     id
                     title
                     score
+                    upvotes
+                    downvotes
                 }
             }
             """;
@@ -219,6 +228,8 @@ class VoteResolverTest {
                     id
                     content
                     score
+                    upvotes
+                    downvotes
                 }
             }
             """;
@@ -287,7 +298,7 @@ class VoteResolverTest {
 
     @Test
     void voteTheory_ShouldUpdateAuthorReputation() {
-        int initialReputation = authorUser.getReputation();
+        int initialReputation = userService.getReputation(authorUser.getId());
 
         String mutation = """
             mutation($id: ID!) {
@@ -302,7 +313,113 @@ class VoteResolverTest {
                 .variable("id", testTheory.getId())
                 .execute();
 
-        User updatedAuthor = userRepository.findById(authorUser.getId()).orElseThrow();
-        assertEquals(initialReputation + 1, updatedAuthor.getReputation());
+        assertEquals(initialReputation + 1, userService.getReputation(authorUser.getId()));
+        // Not rolled up into the user row yet, but already part of the resolved total
+        graphQlTester.document("""
+                query($id: ID!) {
+                    user(id: $id) {
+                        reputation
+                    }
+                }
+                """)
+                .variable("id", authorUser.getId())
+                .execute()
+                .path("user.reputation").entity(Integer.class).isEqualTo(initialReputation + 1);
+    }
+
+    @Test
+    void voteBatch_ShouldApplyVotesInOrder_AndAggregatePerTarget() {
+        Comment comment = commentService.createComment(CommentInput.builder()
+                .content("Comment to vote on with enough content.")
+                .theoryId(testTheory.getId())
+                .build(), authorUser.getUsername());
+
+        String mutation = """
+            mutation($votes: [VoteInput!]!) {
+                voteBatch(votes: $votes) {
+                    theories { id score upvotes downvotes }
+                    comments { id score }
+                }
+            }
+            """;
+
+        // Upvoted, withdrawn, then downvoted, as three separate voteTheory calls would
+        authenticatedTester().document(mutation)
+                .variable("votes", List.of(
+                        Map.of("theoryId", testTheory.getId(), "value", 1),
+                        Map.of("commentId", comment.getId(), "value", 1),
+                        Map.of("theoryId", testTheory.getId(), "value", 1),
+                        Map.of("theoryId", testTheory.getId(), "value", -1)))
+                .execute()
+                .path("voteBatch.theories[0].score").entity(Integer.class).isEqualTo(-1)
+                .path("voteBatch.theories[0].upvotes").entity(Integer.class).isEqualTo(0)
+                .path("voteBatch.theories[0].downvotes").entity(Integer.class).isEqualTo(1)
+                .path("voteBatch.comments[0].score").entity(Integer.class).isEqualTo(1);
+
+        assertEquals(2, voteRepository.count());
+        assertEquals(0, userService.getReputation(authorUser.getId()));
+    }
+
+    @Test
+    void voteBatch_ShouldSkipTargetsThatNoLongerExist() {
+        String mutation = """
+            mutation($votes: [VoteInput!]!) {
+                voteBatch(votes: $votes) {
+                    theories { id score }
+                    comments { id }
+                }
+            }
+            """;
+
+        authenticatedTester().document(mutation)
+                .variable("votes", List.of(
+                        Map.of("theoryId", 999999, "value", 1),
+                        Map.of("commentId", 999999, "value", 1),
+                        Map.of("theoryId", testTheory.getId(), "value", 1)))
+                .execute()
+                .path("voteBatch.theories").entityList(Object.class).hasSize(1)
+                .path("voteBatch.theories[0].score").entity(Integer.class).isEqualTo(1)
+                .path("voteBatch.comments").entityList(Object.class).hasSize(0);
+    }
+
+    @Test
+    void voteBatch_ShouldRejectWholeBatch_WhenAVoteIsInvalid() {
+        String mutation = """
+            mutation($votes: [VoteInput!]!) {
+                voteBatch(votes: $votes) {
+                    theories { id }
+                }
+            }
+            """;
+
+        authenticatedTester().document(mutation)
+                .variable("votes", List.of(
+                        Map.of("theoryId", testTheory.getId(), "value", 1),
+                        Map.of("theoryId", testTheory.getId(), "commentId", 1, "value", 1)))
+                .execute()
+                .errors()
+                .satisfy(errors -> assertEquals("Each vote must name either a theory or a comment",
+                        errors.get(0).getMessage()));
+
+        assertEquals(0, voteRepository.count());
+    }
+
+    @Test
+    void voteBatch_ShouldFail_WhenNotAuthenticated() {
+        String mutation = """
+            mutation($votes: [VoteInput!]!) {
+                voteBatch(votes: $votes) {
+                    theories { id }
+                }
+            }
+            """;
+
+        graphQlTester.document(mutation)
+                .variable("votes", List.of(Map.of("theoryId", testTheory.getId(), "value", 1)))
+                .execute()
+                .errors()
+                .satisfy(errors -> assertFalse(errors.isEmpty()));
+
+        assertEquals(0, voteRepository.count());
     }
 }
@@ -0,0 +1,114 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.service.TheoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "forum.search.engine=memory")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class InMemoryCommentSearchEngineTest {
+
+    @Autowired
+    private InMemoryCommentSearchEngine searchEngine;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User testUser;
+    private Theory testTheory;
+
+    @BeforeEach
+    void setUp() {
+        commentRepository.findAll().forEach(comment -> searchEngine.remove(comment.getId()));
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = userRepository.save(User.builder()
+                .username("commenter")
+                .email("commenter@example.com")
+                .password("password123")
+                .build());
+        testTheory = theoryService.createTheory(TheoryInput.builder()
+                .title("Theory under discussion")
+                .content("Enough content to make this a valid theory.")
+                .build(), testUser.getUsername());
+    }
+
+    @Test
+    void searchComments_ShouldFollowWritesAndHighlightWholeTerms() {
+        Comment comment = createComment("Satellites and satellite dishes are listening.", null);
+
+        List<CommentSearchHit> hits = commentService.searchComments("satellite", null, null);
+
+        assertEquals(1, hits.size());
+        assertEquals(comment.getId(), hits.get(0).commentId());
+        assertEquals("Satellites and <b>satellite</b> dishes are listening.", hits.get(0).snippet());
+
+        commentService.updateComment(comment.getId(), "Antennas are listening instead.", testUser.getUsername());
+
+        assertTrue(commentService.searchComments("satellite", null, null).isEmpty());
+        assertEquals(1, commentService.searchComments("antennas", testTheory.getId(), null).size());
+        assertTrue(commentService.searchComments("antennas", testTheory.getId() + 1, null).isEmpty());
+    }
+
+    @Test
+    void searchComments_ShouldDropRepliesAndTheoryComments_WhenTheyAreDeleted() {
+        Comment root = createComment("Root comment about the lizard people.", null);
+        createComment("Reply comment about the lizard people.", root.getId());
+        createComment("Second root about the lizard people.", null);
+
+        commentService.deleteComment(root.getId(), testUser.getUsername());
+
+        assertEquals(1, commentService.searchComments("lizard", null, null).size());
+
+        theoryService.deleteTheory(testTheory.getId(), testUser.getUsername());
+
+        assertTrue(commentService.searchComments("lizard", null, null).isEmpty());
+    }
+
+    private Comment createComment(String content, Long parentId) {
+        return commentService.createComment(CommentInput.builder()
+                .content(content)
+                .theoryId(testTheory.getId())
+                .parentId(parentId)
+                .build(), testUser.getUsername());
+    }
+}
@@ -0,0 +1,153 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import com.conspiracy.forum.service.TheoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "forum.search.engine=memory")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class InMemoryTheorySearchEngineTest {
+
+    @Autowired
+    private InMemoryTheorySearchEngine searchEngine;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        theoryRepository.findAll().forEach(theory -> searchEngine.remove(theory.getId()));
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        testUser = userRepository.save(User.builder()
+                .username("indexer")
+                .email("indexer@example.com")
+                .password("password123")
+                .build());
+    }
+
+    @Test
+    void getTheories_ShouldFollowCreateUpdateAndDelete() {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Reptilians in congress")
+                .content("Count the blinks during every hearing.")
+                .build(), testUser.getUsername());
+
+        assertEquals(List.of(theory.getId()), searchIds("reptilians"));
+
+        theoryService.updateTheory(theory.getId(), TheoryInput.builder()
+                .title("Mole people in congress")
+                .build(), testUser.getUsername());
+
+        assertTrue(searchIds("reptilians").isEmpty());
+        assertEquals(List.of(theory.getId()), searchIds("mole people"));
+
+        theoryService.deleteTheory(theory.getId(), testUser.getUsername());
+
+        assertTrue(searchIds("mole").isEmpty());
+    }
+
+    @Test
+    void getTheories_ShouldOnlyHydrateTheRequestedPage() {
+        for (int i = 1; i <= 3; i++) {
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Weather control report " + i)
+                    .content("HAARP antennas are steering the storms again.")
+                    .build(), testUser.getUsername());
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<Theory> page = theoryService.getTheories(
+                TheoryFilter.builder().keyword("haarp storms").searchOrder(SearchOrder.RECENT).build(),
+                PageInput.builder().page(1).size(2).build());
+
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("Weather control report 3", "Weather control report 2"),
+                page.getContent().stream().map(Theory::getTitle).toList());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTheories_ShouldIgnoreRolledBackWrites() {
+        transactionTemplate.executeWithoutResult(status -> {
+            theoryService.createTheory(TheoryInput.builder()
+                    .title("Phantom theory")
+                    .content("This write never makes it to the database.")
+                    .build(), testUser.getUsername());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(searchIds("phantom").isEmpty());
+    }
+
+    @Test
+    void buildIndex_ShouldPickUpExistingRows() {
+        Theory theory = theoryRepository.save(Theory.builder()
+                .title("Fluoride mind control")
+                .content("Inserted behind the service's back.")
+                .author(testUser)
+                .build());
+
+        assertTrue(searchIds("fluoride").isEmpty());
+
+        searchEngine.buildIndex();
+
+        assertEquals(List.of(theory.getId()), searchIds("fluoride"));
+    }
+
+    private List<Long> searchIds(String keyword) {
+        return theoryService.getTheories(TheoryFilter.builder().keyword(keyword).build(), null)
+                .getContent().stream()
+                .map(Theory::getId)
+                .toList();
+    }
+}
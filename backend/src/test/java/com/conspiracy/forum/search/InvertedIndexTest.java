@@ -0,0 +1,123 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.enums.TheoryStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    private final InvertedIndex index = new InvertedIndex();
+
+    @Test
+    void search_ShouldRequireEveryTerm_AndRankByBm25() {
+        index.put(document(1L, "Moon landing hoax", "The moon landing was filmed in a studio.", NOW));
+        index.put(document(2L, "Moon bases", "Secret bases exist on the far side.", NOW.plusHours(1)));
+        index.put(document(3L, "Studio lights", "Lights and cameras everywhere.", NOW.plusHours(2)));
+
+        InvertedIndex.Hits hits = index.search("moon landing", null, SearchOrder.RELEVANCE, 0, 10);
+
+        assertEquals(List.of(1L), hits.ids());
+        assertEquals(1, hits.total());
+        assertEquals(List.of(1L, 2L), index.search("Moon!", null, SearchOrder.RELEVANCE, 0, 10).ids());
+    }
+
+    @Test
+    void search_ShouldOrderByRecency_AndPage() {
+        for (long id = 1; id <= 5; id++) {
+            index.put(document(id, "Chemtrail report " + id, "Another chemtrail sighting today.", NOW.plusMinutes(id)));
+        }
+
+        InvertedIndex.Hits firstPage = index.search("chemtrail", null, SearchOrder.RECENT, 0, 2);
+        InvertedIndex.Hits secondPage = index.search("chemtrail", null, SearchOrder.RECENT, 2, 2);
+        InvertedIndex.Hits pastTheEnd = index.search("chemtrail", null, SearchOrder.RECENT, 10, 2);
+
+        assertEquals(List.of(5L, 4L), firstPage.ids());
+        assertEquals(List.of(3L, 2L), secondPage.ids());
+        assertTrue(pastTheEnd.ids().isEmpty());
+        assertEquals(5, pastTheEnd.total());
+    }
+
+    @Test
+    void search_ShouldFilterByStatus() {
+        index.put(new SearchDocument(1L, "Lizard people", "Lizards run everything.", TheoryStatus.CONFIRMED, NOW));
+        index.put(new SearchDocument(2L, "Lizard kings", "Lizards rule the world.", TheoryStatus.DEBUNKED, NOW));
+
+        InvertedIndex.Hits hits = index.search("lizard", SearchDocument.statusKey(TheoryStatus.DEBUNKED),
+                SearchOrder.RELEVANCE, 0, 10);
+
+        assertEquals(List.of(2L), hits.ids());
+    }
+
+    @Test
+    void put_ShouldReplacePreviousVersion_AndRemoveShouldDropDocument() {
+        index.put(document(1L, "Flat earth", "The earth is flat.", NOW));
+        index.put(document(1L, "Hollow earth", "The earth is hollow.", NOW));
+
+        assertTrue(index.search("flat", null, SearchOrder.RELEVANCE, 0, 10).ids().isEmpty());
+        assertEquals(List.of(1L), index.search("hollow", null, SearchOrder.RELEVANCE, 0, 10).ids());
+
+        index.remove(1L);
+
+        assertEquals(0, index.size());
+        assertTrue(index.search("hollow", null, SearchOrder.RELEVANCE, 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    void removeByFilterKey_ShouldDropEveryDocumentWithThatKey_Only() {
+        index.put(new SearchDocument(1L, "Reply about chemtrails", 10L, NOW));
+        index.put(new SearchDocument(2L, "Another chemtrail reply", 10L, NOW.plusMinutes(1)));
+        index.put(new SearchDocument(3L, "Chemtrails elsewhere", 20L, NOW.plusMinutes(2)));
+
+        index.removeByFilterKey(10L);
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(3L), index.search("chemtrails", null, SearchOrder.RECENT, 0, 10).ids());
+        assertTrue(index.search("reply", null, SearchOrder.RELEVANCE, 0, 10).ids().isEmpty());
+    }
+
+    @Test
+    void remove_ShouldKeepResultsConsistent_AcrossCompaction() {
+        for (long id = 1; id <= 3000; id++) {
+            index.put(document(id, "Signal " + id, id % 2 == 0 ? "even signal" : "odd signal", NOW.plusSeconds(id)));
+        }
+        for (long id = 1; id <= 2500; id++) {
+            index.remove(id);
+        }
+
+        InvertedIndex.Hits hits = index.search("even signal", null, SearchOrder.RECENT, 0, 3);
+
+        assertEquals(500, index.size());
+        assertEquals(250, hits.total());
+        assertEquals(List.of(3000L, 2998L, 2996L), hits.ids());
+    }
+
+    @Test
+    void put_ShouldCompactTombstones_WhenTheSameDocumentKeepsChanging() {
+        index.put(document(2L, "Steady signal", "Never edited.", NOW.minusHours(1)));
+        for (int version = 0; version < 3 * InvertedIndex.MIN_COMPACTION_TOMBSTONES; version++) {
+            index.put(document(1L, "Edited signal", "Revision " + version, NOW));
+        }
+
+        assertEquals(2, index.size());
+        assertTrue(index.slots() <= InvertedIndex.MIN_COMPACTION_TOMBSTONES + 2);
+        assertEquals(List.of(1L, 2L), index.search("signal", null, SearchOrder.RECENT, 0, 10).ids());
+        assertEquals(1, index.search("revision", null, SearchOrder.RELEVANCE, 0, 10).total());
+    }
+
+    @Test
+    void tokenize_ShouldLowercaseAndDropStopWords() {
+        assertEquals(List.of("area", "51", "hides", "ufos"), InvertedIndex.tokenize("The Area-51 hides UFOs!"));
+        assertTrue(InvertedIndex.tokenize("   ").isEmpty());
+    }
+
+    private static SearchDocument document(Long id, String title, String content, LocalDateTime postedAt) {
+        return new SearchDocument(id, title, content, TheoryStatus.UNVERIFIED, postedAt);
+    }
+}
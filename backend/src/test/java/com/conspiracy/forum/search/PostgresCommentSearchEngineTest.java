@@ -0,0 +1,153 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.CommentSearchHit;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.service.CommentService;
+import com.conspiracy.forum.service.TheoryService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs comment search through ts_headline on a real Postgres; the other search tests use H2.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "forum.search.engine=postgres"
+})
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class PostgresCommentSearchEngineTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Theory theory;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE votes, reputation_deltas, comments, theory_evidence_urls, theories, users");
+
+        User author = userRepository.save(User.builder()
+                .username("searcher")
+                .email("searcher@example.com")
+                .password("password123")
+                .build());
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Searched theory")
+                .content("A theory whose comments are searched.")
+                .build(), author.getUsername());
+    }
+
+    @Test
+    void searchComments_ShouldEscapeContent_LeavingOnlyTheMarkersAsMarkup() {
+        createComment("Look <script>alert('satellites')</script> & the \"satellite\" dish");
+
+        List<CommentSearchHit> hits = commentService.searchComments("satellite", null, null);
+
+        assertEquals(1, hits.size());
+        assertEquals("Look &lt;script&gt;alert(&#39;<b>satellites</b>&#39;)&lt;/script&gt; &amp; the " +
+                "&quot;<b>satellite</b>&quot; dish", hits.get(0).snippet());
+    }
+
+    @Test
+    void searchSnippets_ShouldStopAtThePage_ForCommonTerms_AndUseTheGinIndex_ForRareOnes() {
+        jdbcTemplate.update("""
+                INSERT INTO comments (content, posted_at, author_id, theory_id)
+                SELECT CASE WHEN g % 5000 = 0 THEN 'A zeppelin over the satellites ' ELSE 'The satellites see ' END || g,
+                       TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute', t.author_id, t.id
+                FROM generate_series(1, 20000) g, theories t
+                """);
+        jdbcTemplate.execute("VACUUM ANALYZE comments");
+
+        String common = plan("satellites");
+        assertTrue(common.contains("idx_comments_posted_at_id"), common);
+        assertFalse(common.contains("idx_comments_search_vector"), common);
+
+        String rare = plan("zeppelin");
+        assertTrue(rare.contains("idx_comments_search_vector"), rare);
+
+        List<CommentSearchHit> hits = commentService.searchComments("satellites", null, null);
+        // The newest match comes first
+        assertEquals("zeppelin over the <b>satellites</b>", hits.get(0).snippet());
+    }
+
+    private String plan(String query) {
+        String sql = searchSnippetsSql()
+                .replace(":query", "'" + query + "'")
+                .replace(":theoryId", "NULL")
+                .replace(":limit", "20")
+                .replace(":offset", "0");
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+
+    private static String searchSnippetsSql() {
+        try {
+            return CommentRepository.class
+                    .getMethod("searchSnippets", String.class, Long.class, int.class, long.class)
+                    .getAnnotation(Query.class)
+                    .value();
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void createComment(String content) {
+        commentService.createComment(CommentInput.builder()
+                .content(content)
+                .theoryId(theory.getId())
+                .build(), "searcher");
+    }
+}
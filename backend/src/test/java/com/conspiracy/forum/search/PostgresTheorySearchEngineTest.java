@@ -0,0 +1,152 @@
+package com.conspiracy.forum.search;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.service.TheoryService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs theory keyword search through the tsvector queries on a real Postgres; the other search tests use H2.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "forum.search.engine=postgres"
+})
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class PostgresTheorySearchEngineTest {
+
+    private static final PageInput FIRST_PAGE = PageInput.builder().page(1).size(10).build();
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE votes, reputation_deltas, comments, theory_evidence_urls, theories, users");
+
+        userRepository.save(User.builder()
+                .username("seeker")
+                .email("seeker@example.com")
+                .password("password123")
+                .build());
+        // The title weighs more than the content, so the older theory leads by relevance and trails by recency
+        createTheory("The moon landing was staged", "Studio lighting gives it away.", TheoryStatus.CONFIRMED,
+                LocalDateTime.now().minusDays(2));
+        createTheory("Studio lights everywhere", "Someone mentioned the moon once.", TheoryStatus.DEBUNKED,
+                LocalDateTime.now().minusDays(1));
+        createTheory("Birds are drones", "Nothing about the sky at night.", TheoryStatus.CONFIRMED,
+                LocalDateTime.now());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesFirst_ByRelevance() {
+        TheoryFilter filter = TheoryFilter.builder().keyword("moon").build();
+
+        Page<Theory> page = theoryService.getTheories(filter, FIRST_PAGE);
+        Slice<Theory> slice = theoryService.getTheorySlice(filter, FIRST_PAGE);
+
+        List<String> expected = List.of("The moon landing was staged", "Studio lights everywhere");
+        assertEquals(expected, page.map(Theory::getTitle).getContent());
+        assertEquals(2, page.getTotalElements());
+        assertEquals(expected, slice.map(Theory::getTitle).getContent());
+        assertFalse(slice.hasNext());
+        // A full page needs the count query to tell the total
+        assertEquals(2, theoryService.getTheories(filter, PageInput.builder().page(1).size(1).build())
+                .getTotalElements());
+    }
+
+    @Test
+    void search_ShouldOrderNewestFirst_ByRecency() {
+        TheoryFilter filter = TheoryFilter.builder().keyword("moon").searchOrder(SearchOrder.RECENT).build();
+
+        Page<Theory> page = theoryService.getTheories(filter, FIRST_PAGE);
+        Slice<Theory> slice = theoryService.getTheorySlice(filter, FIRST_PAGE);
+
+        List<String> expected = List.of("Studio lights everywhere", "The moon landing was staged");
+        assertEquals(expected, page.map(Theory::getTitle).getContent());
+        assertEquals(2, page.getTotalElements());
+        assertEquals(expected, slice.map(Theory::getTitle).getContent());
+    }
+
+    @Test
+    void search_ShouldApplyTheStatusFilter_AlongsideTheKeyword() {
+        for (SearchOrder order : SearchOrder.values()) {
+            TheoryFilter filter = TheoryFilter.builder()
+                    .keyword("studio")
+                    .status(TheoryStatus.DEBUNKED)
+                    .searchOrder(order)
+                    .build();
+
+            Page<Theory> page = theoryService.getTheories(filter, FIRST_PAGE);
+            Slice<Theory> slice = theoryService.getTheorySlice(filter, FIRST_PAGE);
+
+            assertEquals(List.of("Studio lights everywhere"), page.map(Theory::getTitle).getContent());
+            assertEquals(1, page.getTotalElements());
+            assertEquals(List.of("Studio lights everywhere"), slice.map(Theory::getTitle).getContent());
+        }
+    }
+
+    private void createTheory(String title, String content, TheoryStatus status, LocalDateTime postedAt) {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title(title)
+                .content(content)
+                .status(status)
+                .build(), "seeker");
+        jdbcTemplate.update("UPDATE theories SET posted_at = ? WHERE id = ?", postedAt, theory.getId());
+    }
+}
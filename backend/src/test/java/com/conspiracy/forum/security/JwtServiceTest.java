@@ -1,20 +1,25 @@
 package com.conspiracy.forum.security;
 
 import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.service.TokenVersionRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
 
 class JwtServiceTest {
 
     private JwtService jwtService;
+    private TokenVersionRegistry tokenVersions;
     private User testUser;
 
     @BeforeEach
     void setUp() {
-        jwtService = new JwtService();
+        tokenVersions = new TokenVersionRegistry(mock(UserRepository.class));
+        jwtService = new JwtService(tokenVersions);
         // Use a valid base64-encoded secret key (at least 256 bits for HS256)
         ReflectionTestUtils.setField(jwtService, "secretKey", 
                 "dGVzdC1zZWNyZXQta2V5LWZvci1qd3QtdG9rZW4tc2lnbmluZy1pbi10ZXN0cw==");
@@ -103,4 +108,54 @@ class JwtServiceTest {
         assertThrows(Exception.class, 
                 () -> jwtService.extractUsername("invalid-token"));
     }
+
+    @Test
+    void verify_ShouldServeRepeatedTokensFromCache() {
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10);
+        String token = jwtService.generateToken(testUser);
+
+        JwtService.VerifiedToken first = jwtService.verify(token);
+        JwtService.VerifiedToken second = jwtService.verify(token);
+
+        assertEquals("testuser", first.username());
+        assertSame(first, second);
+    }
+
+    @Test
+    void verify_ShouldRejectTamperedToken_EvenWhenOriginalIsCached() {
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10);
+        String token = jwtService.generateToken(testUser);
+        jwtService.verify(token);
+
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtService.verify(forged));
+    }
+
+    @Test
+    void verify_ShouldRejectCachedToken_OnceExpired() throws InterruptedException {
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 1500L);
+        String token = jwtService.generateToken(testUser);
+        jwtService.verify(token);
+
+        Thread.sleep(2000);
+
+        assertThrows(io.jsonwebtoken.ExpiredJwtException.class, () -> jwtService.verify(token));
+    }
+
+    @Test
+    void verify_ShouldRejectRevokedToken_AndAcceptOnesIssuedAfter() {
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", 10);
+        String revoked = jwtService.generateToken(testUser);
+        jwtService.verify(revoked);
+
+        tokenVersions.revoke(testUser);
+        String reissued = jwtService.generateToken(testUser);
+
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtService.verify(revoked));
+        assertThrows(io.jsonwebtoken.JwtException.class, () -> jwtService.isTokenValid(revoked, testUser));
+        assertTrue(jwtService.isTokenValid(reissued, testUser));
+    }
 }
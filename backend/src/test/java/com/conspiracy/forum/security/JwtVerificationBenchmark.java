@@ -0,0 +1,91 @@
+package com.conspiracy.forum.security;
+
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.service.TokenVersionRegistry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Per-request token verification as done by JwtAuthenticationFilter.
+// Run after test-compile with: java -cp target/test-classes:target/classes:<test classpath> \
+//   com.conspiracy.forum.security.JwtVerificationBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerificationBenchmark {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQta2V5LWZvci1qd3QtdG9rZW4tc2lnbmluZy1pbi10ZXN0cw==";
+
+    private JwtService uncached;
+    private JwtService cached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = jwtService(0);
+        cached = jwtService(10_000);
+        user = User.builder().id(1L).username("benchmark").email("benchmark@example.com").password("x").build();
+        token = cached.generateToken(user);
+    }
+
+    // The previous filter path: rebuild the key and parser, then parse the token three times
+    @Benchmark
+    public boolean previousThreeParses() {
+        String username = legacyClaims(token).getSubject();
+        return username.equals(user.getUsername())
+                && legacyClaims(token).getSubject().equals(user.getUsername())
+                && !legacyClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return uncached.verify(token).username();
+    }
+
+    @Benchmark
+    public String cachedVerification() {
+        return cached.verify(token).username();
+    }
+
+    private static Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+
+    private static JwtService jwtService(int cacheSize) {
+        JwtService jwtService = new JwtService(new TokenVersionRegistry(Mockito.mock(UserRepository.class)));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 86400000L);
+        ReflectionTestUtils.setField(jwtService, "verifiedCacheSize", cacheSize);
+        return jwtService;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerificationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
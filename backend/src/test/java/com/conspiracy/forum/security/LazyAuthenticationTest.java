@@ -0,0 +1,171 @@
+package com.conspiracy.forum.security;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.RegisterRequest;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import com.conspiracy.forum.service.AuthService;
+import com.conspiracy.forum.service.TheoryService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class LazyAuthenticationTest {
+
+    private static final String THEORIES = """
+        query {
+            theories {
+                id
+                title
+            }
+        }
+        """;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @SpyBean
+    private JwtService jwtService;
+
+    private String token;
+    private Theory theory;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        token = authService.register(RegisterRequest.builder()
+                .username("lazyuser")
+                .email("lazy@example.com")
+                .password("password123")
+                .build()).getToken();
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Lazy theory")
+                .content("A theory read without ever checking who is reading.")
+                .build(), "lazyuser");
+        Mockito.clearInvocations(jwtService);
+    }
+
+    @Test
+    void publicRead_ShouldNotVerifyTokenOrLoadUser() {
+        Statistics statistics = statistics();
+
+        withToken(token).document(THEORIES).execute()
+                .path("theories[0].title").entity(String.class).isEqualTo("Lazy theory");
+
+        verify(jwtService, never()).verify(anyString());
+        assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("username")),
+                () -> Arrays.toString(statistics.getQueries()));
+    }
+
+    @Test
+    void publicRead_ShouldSucceed_WithForgedToken() {
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + new StringBuilder(parts[2]).reverse();
+
+        withToken(forged).document(THEORIES).execute()
+                .path("theories[0].title").entity(String.class).isEqualTo("Lazy theory");
+
+        withToken(forged).document("query { me { username } }").execute()
+                .errors().expect(error -> true);
+    }
+
+    @Test
+    void protectedOperations_ShouldResolveTokenOncePerRequest() {
+        withToken(token).document("query { me { username } }").execute()
+                .path("me.username").entity(String.class).isEqualTo("lazyuser");
+        verify(jwtService, times(1)).verify(token);
+
+        withToken(token).document("""
+                mutation($id: ID!) {
+                    voteTheory(id: $id, value: 1) {
+                        score
+                    }
+                }
+                """)
+                .variable("id", theory.getId())
+                .execute()
+                .path("voteTheory.score").entity(Integer.class).isEqualTo(1);
+        verify(jwtService, times(2)).verify(token);
+    }
+
+    @Test
+    void protectedMutation_ShouldBeDenied_WithForgedToken() {
+        String forged = token.substring(0, token.length() - 4) + "AAAA";
+
+        withToken(forged).document("""
+                mutation($id: ID!) {
+                    voteTheory(id: $id, value: 1) {
+                        score
+                    }
+                }
+                """)
+                .variable("id", theory.getId())
+                .execute()
+                .errors().expect(error -> true);
+
+        assertEquals(0, voteRepository.count());
+    }
+
+    // Against the running server rather than MockMvc, whose test servlet ignores the MVC event settings
+    private HttpGraphQlTester withToken(String bearer) {
+        return HttpGraphQlTester.create(WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + port + "/graphql")
+                .defaultHeader("Authorization", "Bearer " + bearer)
+                .build());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
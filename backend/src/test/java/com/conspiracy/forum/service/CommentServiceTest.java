@@ -21,7 +21,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -131,6 +134,39 @@ class CommentServiceTest {
         assertEquals(2, comments.size());
     }
 
+    @Test
+    void getCommentsByTheories_ShouldGroupByTheoryAndCapEachList() {
+        Theory otherTheory = theoryService.createTheory(TheoryInput.builder()
+                .title("Another Theory Title")
+                .content("Another test theory with enough content.")
+                .build(), testUser.getUsername());
+
+        LocalDateTime start = LocalDateTime.now().minusDays(1);
+        List<Comment> comments = new ArrayList<>();
+        for (int i = 0; i < 105; i++) {
+            comments.add(Comment.builder()
+                    .content("Bulk comment number " + i)
+                    .postedAt(start.plusMinutes(i))
+                    .author(testUser)
+                    .theory(testTheory)
+                    .build());
+        }
+        comments.add(Comment.builder()
+                .content("Only comment on the other theory.")
+                .author(testUser)
+                .theory(otherTheory)
+                .build());
+        commentRepository.saveAll(comments);
+
+        Map<Long, List<Comment>> result = commentService.getCommentsByTheories(
+                List.of(testTheory.getId(), otherTheory.getId(), 99999L));
+
+        assertEquals(100, result.get(testTheory.getId()).size());
+        assertEquals("Bulk comment number 104", result.get(testTheory.getId()).get(0).getContent());
+        assertEquals(1, result.get(otherTheory.getId()).size());
+        assertTrue(result.get(99999L).isEmpty());
+    }
+
     @Test
     void updateComment_ShouldSucceed_WhenOwner() {
         CommentInput input = CommentInput.builder()
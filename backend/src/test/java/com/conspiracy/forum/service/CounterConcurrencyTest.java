@@ -0,0 +1,165 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: every vote and comment commits on its own, racing the others for the same rows
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class CounterConcurrencyTest {
+
+    private static final int VOTERS = 1000;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    private final List<User> voters = new ArrayList<>();
+    private User author;
+    private Theory theory;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        author = userRepository.save(User.builder()
+                .username("author")
+                .email("author@example.com")
+                .password("password123")
+                .build());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            users.add(User.builder()
+                    .username("voter" + i)
+                    .email("voter" + i + "@example.com")
+                    .password("password123")
+                    .build());
+        }
+        voters.clear();
+        voters.addAll(userRepository.saveAll(users));
+
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Contested theory")
+                .content("A theory everyone votes and comments on at once.")
+                .build(), "author");
+        comment = commentService.createComment(CommentInput.builder()
+                .content("The comment everyone votes on")
+                .theoryId(theory.getId())
+                .build(), "author");
+    }
+
+    @Test
+    void parallelVotesAndComments_ShouldLeaveExactCounters() throws Exception {
+        int expectedTheoryScore = 0;
+        int expectedUpvotes = 0;
+        int expectedDownvotes = 0;
+        int expectedCommentScore = 0;
+        for (int i = 0; i < VOTERS; i++) {
+            if (withdraws(i)) {
+                continue;
+            }
+            int theoryVote = theoryVote(i);
+            expectedTheoryScore += theoryVote;
+            expectedUpvotes += theoryVote > 0 ? 1 : 0;
+            expectedDownvotes += theoryVote < 0 ? 1 : 0;
+            expectedCommentScore += commentVote(i);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < VOTERS; i++) {
+                int index = i;
+                User voter = voters.get(i);
+                futures.add(executor.submit(() -> {
+                    voteService.voteTheory(voter.getId(), theory.getId(), theoryVote(index));
+                    voteService.voteComment(voter.getId(), comment.getId(), commentVote(index));
+                    commentService.createComment(CommentInput.builder()
+                            .content("Comment number " + index)
+                            .theoryId(theory.getId())
+                            .build(), voter.getUsername());
+                    if (withdraws(index)) {
+                        voteService.voteTheory(voter.getId(), theory.getId(), theoryVote(index));
+                        voteService.voteComment(voter.getId(), comment.getId(), commentVote(index));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Theory storedTheory = theoryRepository.findById(theory.getId()).orElseThrow();
+        Comment storedComment = commentRepository.findById(comment.getId()).orElseThrow();
+
+        assertEquals(expectedTheoryScore, storedTheory.getScore());
+        assertEquals(expectedUpvotes, storedTheory.getUpvotes());
+        assertEquals(expectedDownvotes, storedTheory.getDownvotes());
+        assertEquals(VOTERS + 1, storedTheory.getCommentCount());
+        assertEquals(VOTERS + 1, commentRepository.countByTheoryId(theory.getId()));
+        assertEquals(expectedCommentScore, storedComment.getScore());
+        assertEquals(expectedTheoryScore + expectedCommentScore, userService.getReputation(author.getId()));
+    }
+
+    private static int theoryVote(int index) {
+        return index % 3 == 0 ? -1 : 1;
+    }
+
+    private static int commentVote(int index) {
+        return index % 2 == 0 ? 1 : -1;
+    }
+
+    private static boolean withdraws(int index) {
+        return index % 5 == 0;
+    }
+}
@@ -0,0 +1,188 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import com.conspiracy.forum.util.PaginationUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the board only sees committed writes
+@SpringBootTest(properties = "forum.hot.leaderboard-size=3")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class HotTheoryLeaderboardTest {
+
+    @Autowired
+    private HotTheoryLeaderboard hotTheoryLeaderboard;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User author;
+    private List<Theory> theories;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        author = userRepository.save(User.builder()
+                .username("leader")
+                .email("leader@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+        hotTheoryLeaderboard.reload();
+
+        theories = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            theories.add(theoryService.createTheory(TheoryInput.builder()
+                    .title("Leaderboard theory " + i)
+                    .content("Leaderboard theory content number " + i + ".")
+                    .build(), author.getUsername()));
+        }
+    }
+
+    @Test
+    void getHotTheories_ShouldServeFirstPageWithoutQueries() {
+        hotTheoryLeaderboard.reload();
+        Statistics statistics = statistics();
+
+        List<String> titles = hotTitles(1, 2);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(sqlTitles(1, 2), titles);
+    }
+
+    @Test
+    void getHotTheories_ShouldFallBackToSql_BeyondTheBoard() {
+        Statistics statistics = statistics();
+
+        List<String> titles = hotTitles(2, 2);
+
+        assertTrue(statistics.getPrepareStatementCount() > 0);
+        assertEquals(List.of("Leaderboard theory 2", "Leaderboard theory 1"), titles);
+    }
+
+    @Test
+    void createComment_ShouldPromoteTheoryFromOutsideTheBoard() {
+        Theory coldest = theories.get(0);
+        commentService.createComment(CommentInput.builder()
+                .content("A comment that heats this theory up.")
+                .theoryId(coldest.getId())
+                .build(), author.getUsername());
+        Statistics statistics = statistics();
+
+        List<String> titles = hotTitles(1, 2);
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals("Leaderboard theory 0", titles.get(0));
+        assertEquals(sqlTitles(1, 2), titles);
+    }
+
+    @Test
+    void update_ShouldRereadTheRow_WhenHandedAStaleTheory() {
+        Theory coldest = theories.get(0);
+        commentService.createComment(CommentInput.builder()
+                .content("A comment that heats this theory up.")
+                .theoryId(coldest.getId())
+                .build(), author.getUsername());
+
+        // Still from before the comment, as a commit that finished late would hand it over
+        hotTheoryLeaderboard.update(coldest);
+
+        List<String> titles = hotTitles(1, 2);
+        assertEquals("Leaderboard theory 0", titles.get(0));
+        assertEquals(sqlTitles(1, 2), titles);
+    }
+
+    @Test
+    void voteTheory_ShouldDropTheoryBelowTheFloor_AndKeepPagesExact() {
+        User voter = userRepository.save(User.builder()
+                .username("downvoter")
+                .email("downvoter@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+
+        voteService.voteTheory(voter.getId(), theories.get(4).getId(), -1);
+
+        assertEquals(sqlTitles(1, 2), hotTitles(1, 2));
+        assertEquals(sqlTitles(2, 2), hotTitles(2, 2));
+        assertFalse(hotTitles(1, 2).contains("Leaderboard theory 4"));
+    }
+
+    @Test
+    void deleteTheory_ShouldRemoveItFromTheBoard() {
+        theoryService.deleteTheory(theories.get(4).getId(), author.getUsername());
+
+        List<String> titles = hotTitles(1, 2);
+
+        assertEquals(List.of("Leaderboard theory 3", "Leaderboard theory 2"), titles);
+    }
+
+    private List<String> hotTitles(int page, int size) {
+        return theoryService.getHotTheories(PageInput.builder().page(page).size(size).build())
+                .map(Theory::getTitle)
+                .getContent();
+    }
+
+    private List<String> sqlTitles(int page, int size) {
+        return theoryRepository.findAllOrderByHotScoreDesc(PaginationUtils.createPageable(
+                        PageInput.builder().page(page).size(size).build(), Sort.unsorted()))
+                .map(Theory::getTitle)
+                .getContent();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
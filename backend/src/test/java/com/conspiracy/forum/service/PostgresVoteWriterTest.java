@@ -0,0 +1,241 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.dto.VoteBatchResult;
+import com.conspiracy.forum.dto.VoteInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the ON CONFLICT upsert against a real Postgres; the other tests use H2 and the JPA writer.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect",
+        "forum.votes.writer=postgres"
+})
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class PostgresVoteWriterTest {
+
+    private static EmbeddedPostgres postgres;
+
+    @Autowired
+    private VoteWriter voteWriter;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> voters = new ArrayList<>();
+    private Theory theory;
+    private Comment comment;
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        try {
+            postgres = EmbeddedPostgres.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+    }
+
+    @AfterAll
+    static void stopPostgres() throws IOException {
+        postgres.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE votes, reputation_deltas, comments, theory_evidence_urls, theories, users");
+
+        voters.clear();
+        for (int i = 0; i < 20; i++) {
+            voters.add(userRepository.save(User.builder()
+                    .username("upserter" + i)
+                    .email("upserter" + i + "@example.com")
+                    .password("password123")
+                    .build()));
+        }
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Upserted theory")
+                .content("A theory whose votes are upserted in one statement.")
+                .build(), "upserter0");
+        comment = commentService.createComment(CommentInput.builder()
+                .content("An upserted comment")
+                .theoryId(theory.getId())
+                .build(), "upserter0");
+    }
+
+    @Test
+    void voteTheory_ShouldInsertFlipWithdrawAndRecast_ReturningThePreviousValue() {
+        Long voterId = voters.get(1).getId();
+
+        assertEquals(0, voteWriter.voteTheory(voterId, theory.getId(), 1));
+        assertEquals(1, voteWriter.voteTheory(voterId, theory.getId(), -1));
+        assertEquals(-1, voteWriter.voteTheory(voterId, theory.getId(), -1));
+        assertEquals(0, storedVote("theory_id", theory.getId(), voterId));
+        assertEquals(0, voteWriter.voteTheory(voterId, theory.getId(), 1));
+
+        assertEquals(1, storedVote("theory_id", theory.getId(), voterId));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM votes", Integer.class));
+    }
+
+    @Test
+    void voteComment_ShouldUpsertAgainstItsOwnConstraint() {
+        Long voterId = voters.get(1).getId();
+        voteWriter.voteTheory(voterId, theory.getId(), 1);
+
+        assertEquals(0, voteWriter.voteComment(voterId, comment.getId(), -1));
+        assertEquals(-1, voteWriter.voteComment(voterId, comment.getId(), 1));
+
+        assertEquals(1, storedVote("comment_id", comment.getId(), voterId));
+        assertEquals(1, storedVote("theory_id", theory.getId(), voterId));
+    }
+
+    @Test
+    void concurrentVotes_ShouldApplyInTurn_AndKeepCountersInStepWithVotes() throws Exception {
+        List<Callable<Theory>> votes = new ArrayList<>();
+        for (User voter : voters) {
+            int value = voter.getId() % 2 == 0 ? 1 : -1;
+            // The same first vote submitted three times at once: on, withdrawn, on again
+            for (int i = 0; i < 3; i++) {
+                votes.add(() -> voteService.voteTheory(voter.getId(), theory.getId(), value));
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Theory> vote : executor.invokeAll(votes)) {
+                vote.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Map<String, Object> tally = tally(theory.getId());
+        assertEquals(voters.size(), ((Number) tally.get("upvotes")).intValue() + ((Number) tally.get("downvotes")).intValue());
+        assertCountersMatchVotes(theory.getId());
+    }
+
+    @Test
+    void voteTheories_ShouldReplayEachTargetsVotes_InOneStatement() {
+        Long voterId = voters.get(1).getId();
+        Theory second = theoryService.createTheory(TheoryInput.builder()
+                .title("Second upserted theory")
+                .content("Another theory voted on in the same batch.")
+                .build(), "upserter0");
+        voteWriter.voteTheory(voterId, theory.getId(), 1);
+
+        Map<Long, Integer> previousValues = voteWriter.voteTheories(voterId, Map.of(
+                theory.getId(), List.of(1, -1),
+                second.getId(), List.of(-1, -1, 1)));
+
+        assertEquals(Map.of(theory.getId(), 1, second.getId(), 0), previousValues);
+        // Withdrawn then downvoted; downvoted, withdrawn, then upvoted
+        assertEquals(-1, storedVote("theory_id", theory.getId(), voterId));
+        assertEquals(1, storedVote("theory_id", second.getId(), voterId));
+        assertEquals(Map.of(), voteWriter.voteComments(voterId, Map.of()));
+    }
+
+    @Test
+    void concurrentBatches_ShouldKeepCountersInStepWithVotes() throws Exception {
+        List<Callable<VoteBatchResult>> batches = new ArrayList<>();
+        for (User voter : voters) {
+            int value = voter.getId() % 2 == 0 ? 1 : -1;
+            List<VoteInput> votes = List.of(
+                    VoteInput.builder().theoryId(theory.getId()).value(value).build(),
+                    VoteInput.builder().commentId(comment.getId()).value(-value).build(),
+                    VoteInput.builder().theoryId(theory.getId()).value(-value).build());
+            // Replayed twice at once, as a client retrying after a timeout might
+            batches.add(() -> voteService.voteBatch(voter.getId(), votes));
+            batches.add(() -> voteService.voteBatch(voter.getId(), votes));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<VoteBatchResult> batch : executor.invokeAll(batches)) {
+                batch.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertCountersMatchVotes(theory.getId());
+        Comment storedComment = commentRepository.findById(comment.getId()).orElseThrow();
+        Integer commentScore = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(vote_value), 0) FROM votes WHERE comment_id = ?", Integer.class, comment.getId());
+        assertEquals(commentScore, storedComment.getScore());
+    }
+
+    private Map<String, Object> tally(Long theoryId) {
+        return jdbcTemplate.queryForMap("""
+                SELECT COALESCE(SUM(vote_value), 0) AS score,
+                       COUNT(*) FILTER (WHERE vote_value > 0) AS upvotes,
+                       COUNT(*) FILTER (WHERE vote_value < 0) AS downvotes
+                FROM votes WHERE theory_id = ?
+                """, theoryId);
+    }
+
+    private void assertCountersMatchVotes(Long theoryId) {
+        Map<String, Object> tally = tally(theoryId);
+        Theory stored = theoryRepository.findById(theoryId).orElseThrow();
+        assertEquals(((Number) tally.get("score")).intValue(), stored.getScore());
+        assertEquals(((Number) tally.get("upvotes")).intValue(), stored.getUpvotes());
+        assertEquals(((Number) tally.get("downvotes")).intValue(), stored.getDownvotes());
+    }
+
+    private int storedVote(String targetColumn, Long targetId, Long userId) {
+        return jdbcTemplate.queryForObject("SELECT vote_value FROM votes WHERE user_id = ? AND " + targetColumn + " = ?",
+                Integer.class, userId, targetId);
+    }
+}
@@ -0,0 +1,168 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.LoginRequest;
+import com.conspiracy.forum.dto.RegisterRequest;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "forum.security.principal-ttl=PT1M")
+@AutoConfigureHttpGraphQlTester
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class PrincipalCacheTest {
+
+    private static final String ME = """
+        query {
+            me {
+                username
+                anonymousMode
+            }
+        }
+        """;
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private HttpGraphQlTester authenticated;
+    private String username;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        // A fresh username per test, since cached principals outlive the rows deleted above
+        username = "principal" + System.nanoTime() % 1_000_000;
+        String token = authService.register(RegisterRequest.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password123")
+                .build()).getToken();
+        authenticated = graphQlTester.mutate().header("Authorization", "Bearer " + token).build();
+    }
+
+    @Test
+    void me_ShouldReuseCachedPrincipal_AndLoadOnlyTheAccountRow() {
+        authenticated.document(ME).execute().path("me.anonymousMode").entity(Boolean.class).isEqualTo(false);
+        Statistics statistics = statistics();
+
+        authenticated.document(ME).execute().path("me.anonymousMode").entity(Boolean.class).isEqualTo(false);
+
+        // The principal only carries the id, so the one statement is the primary key read
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("username")),
+                () -> Arrays.toString(statistics.getQueries()));
+    }
+
+    @Test
+    void voteTheory_ShouldNotReloadVoter() {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Principal theory")
+                .content("A theory to vote on with a cached principal.")
+                .build(), userRepository.findAll().get(0).getUsername());
+        authenticated.document(ME).execute();
+        Statistics statistics = statistics();
+
+        authenticated.document("""
+                mutation($id: ID!) {
+                    voteTheory(id: $id, value: 1) {
+                        score
+                    }
+                }
+                """)
+                .variable("id", theory.getId())
+                .execute()
+                .path("voteTheory.score").entity(Integer.class).isEqualTo(1);
+
+        // Neither the filter nor the resolver looks the voter up by username again
+        assertTrue(Arrays.stream(statistics.getQueries()).noneMatch(query -> query.contains("username")),
+                () -> Arrays.toString(statistics.getQueries()));
+    }
+
+    @Test
+    void setAnonymousMode_ShouldInvalidateCachedPrincipal() {
+        authenticated.document(ME).execute().path("me.anonymousMode").entity(Boolean.class).isEqualTo(false);
+
+        authenticated.document("""
+                mutation {
+                    setAnonymousMode(anonymous: true) {
+                        anonymousMode
+                    }
+                }
+                """).execute();
+
+        authenticated.document(ME).execute().path("me.anonymousMode").entity(Boolean.class).isEqualTo(true);
+    }
+
+    @Test
+    void changePassword_ShouldInvalidateCachedPrincipal() {
+        authenticated.document(ME).execute();
+
+        authenticated.document("""
+                mutation {
+                    changePassword(input: { currentPassword: "password123", newPassword: "password456" })
+                }
+                """).execute().path("changePassword").entity(Boolean.class).isEqualTo(true);
+        // The change also revoked the old token, so sign in again
+        String token = authService.login(LoginRequest.builder()
+                .username(username)
+                .password("password456")
+                .build()).getToken();
+        Statistics statistics = statistics();
+
+        graphQlTester.mutate().header("Authorization", "Bearer " + token).build()
+                .document(ME).execute().path("me.username").hasValue();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,176 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: the rollup runs in transactions of its own
+@SpringBootTest(properties = "forum.reputation.rollup-batch-size=3")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class ReputationLedgerTest {
+
+    private static final int VOTERS = 10;
+
+    @Autowired
+    private ReputationLedger reputationLedger;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> voters = new ArrayList<>();
+    private User author;
+    private Theory theory;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM reputation_deltas");
+
+        author = userRepository.save(User.builder()
+                .username("ledgerauthor")
+                .email("ledgerauthor@example.com")
+                .password("password123")
+                .build());
+        voters.clear();
+        for (int i = 0; i < VOTERS; i++) {
+            voters.add(userRepository.save(User.builder()
+                    .username("ledgervoter" + i)
+                    .email("ledgervoter" + i + "@example.com")
+                    .password("password123")
+                    .build()));
+        }
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Ledger theory")
+                .content("A theory whose author's reputation goes through the ledger.")
+                .build(), "ledgerauthor");
+        comment = commentService.createComment(CommentInput.builder()
+                .content("A ledger comment")
+                .theoryId(theory.getId())
+                .build(), "ledgerauthor");
+    }
+
+    @Test
+    void vote_ShouldAppendToLedger_WithoutUpdatingTheAuthorRow() {
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), 1);
+        voteService.voteComment(voters.get(1).getId(), comment.getId(), 1);
+        voteService.voteTheory(voters.get(2).getId(), theory.getId(), -1);
+
+        assertEquals(3, ledgerRows());
+        assertEquals(0, storedReputation(author));
+        assertEquals(1, userService.getReputation(author.getId()));
+    }
+
+    @Test
+    void rollUp_ShouldFoldLedgerIntoUserRow_InBatches() {
+        for (User voter : voters) {
+            voteService.voteTheory(voter.getId(), theory.getId(), 1);
+            voteService.voteComment(voter.getId(), comment.getId(), 1);
+        }
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), 1);
+
+        assertEquals(2 * VOTERS + 1, reputationLedger.rollUp());
+
+        assertEquals(0, ledgerRows());
+        assertEquals(2 * VOTERS - 1, storedReputation(author));
+        assertEquals(2 * VOTERS - 1, userService.getReputation(author.getId()));
+        assertEquals(0, reputationLedger.rollUp());
+    }
+
+    @Test
+    void rollUp_ShouldNeitherLoseNorDoubleCount_WhileVotesArrive() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicBoolean voting = new AtomicBoolean(true);
+        try {
+            Future<?> rollups = executor.submit(() -> {
+                while (voting.get()) {
+                    reputationLedger.rollUp();
+                }
+            });
+            List<Future<?>> votes = new ArrayList<>();
+            for (User voter : voters) {
+                votes.add(executor.submit(() -> {
+                    for (int round = 0; round < 5; round++) {
+                        voteService.voteTheory(voter.getId(), theory.getId(), 1);
+                        voteService.voteComment(voter.getId(), comment.getId(), -1);
+                    }
+                }));
+            }
+            for (Future<?> vote : votes) {
+                vote.get();
+            }
+            voting.set(false);
+            rollups.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Five rounds toggle each vote on, off, on, off and on again
+        assertEquals(0, userService.getReputation(author.getId()));
+        reputationLedger.rollUp();
+        assertEquals(0, ledgerRows());
+        assertEquals(0, storedReputation(author));
+
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), 1);
+        assertEquals(-1, userService.getReputation(author.getId()));
+    }
+
+    private int ledgerRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reputation_deltas", Integer.class);
+    }
+
+    private int storedReputation(User user) {
+        return jdbcTemplate.queryForObject("SELECT reputation FROM users WHERE id = ?", Integer.class, user.getId());
+    }
+}
@@ -0,0 +1,101 @@
+package com.conspiracy.forum.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RisingTheoryTrackerTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_717_243_200_000L;
+
+    private final RisingTheoryTracker tracker = new RisingTheoryTracker(4);
+
+    @Test
+    void rising_ShouldRankActivityRelativeToAge() {
+        record(1L, NOW - 10 * HOUR, 6);
+        record(2L, NOW - HOUR, 2);
+        record(3L, NOW - 2 * HOUR, 1);
+
+        // 6 / 12 < 2 / 3, and 1 / 4 falls below both
+        assertArrayEquals(new long[]{2L, 1L, 3L}, tracker.rising(0, 10, NOW));
+        assertArrayEquals(new long[]{1L}, tracker.rising(1, 1, NOW));
+        assertArrayEquals(new long[0], tracker.rising(3, 10, NOW));
+    }
+
+    @Test
+    void rising_ShouldBreakTiesByNewestId() {
+        record(1L, NOW, 1);
+        record(2L, NOW, 1);
+
+        assertArrayEquals(new long[]{2L, 1L}, tracker.rising(0, 10, NOW));
+    }
+
+    @Test
+    void rising_ShouldForgetActivityOlderThanAnHour() {
+        tracker.record(1L, NOW - HOUR, NOW - HOUR);
+        tracker.record(1L, NOW - HOUR, NOW - 10 * 60_000L);
+        tracker.record(2L, NOW - HOUR, NOW - HOUR);
+
+        assertArrayEquals(new long[]{1L}, tracker.rising(0, 10, NOW));
+        assertArrayEquals(new long[]{1L, 2L}, tracker.rising(0, 10, NOW - 1));
+    }
+
+    @Test
+    void record_ShouldResetBucketsReusedAfterAFullTurnOfTheRing() {
+        record(1L, NOW, 3);
+        tracker.record(1L, NOW, NOW + HOUR);
+        tracker.record(2L, NOW, NOW + HOUR);
+        tracker.record(2L, NOW, NOW + HOUR);
+
+        assertArrayEquals(new long[]{2L, 1L}, tracker.rising(0, 10, NOW + HOUR));
+    }
+
+    @Test
+    void record_ShouldReclaimIdleTheories_WhenFull() {
+        for (long id = 1; id <= 4; id++) {
+            tracker.record(id, NOW - 2 * HOUR, NOW - 2 * HOUR);
+        }
+        tracker.record(4L, NOW - 2 * HOUR, NOW);
+        assertEquals(4, tracker.trackedCount());
+
+        tracker.record(5L, NOW, NOW);
+
+        assertEquals(2, tracker.trackedCount());
+        assertArrayEquals(new long[]{5L, 4L}, tracker.rising(0, 10, NOW));
+    }
+
+    @Test
+    void record_ShouldDropNewTheories_WhenFullOfActiveOnes() {
+        for (long id = 1; id <= 4; id++) {
+            tracker.record(id, NOW, NOW);
+        }
+
+        tracker.record(5L, NOW, NOW);
+
+        assertEquals(4, tracker.trackedCount());
+        assertArrayEquals(new long[]{4L, 3L, 2L, 1L}, tracker.rising(0, 10, NOW));
+    }
+
+    @Test
+    void remove_ShouldStopTrackingTheory_AndKeepOthersReachable() {
+        RisingTheoryTracker large = new RisingTheoryTracker(64);
+        for (long id = 1; id <= 40; id++) {
+            large.record(id, NOW, NOW);
+        }
+
+        for (long id = 1; id <= 40; id += 2) {
+            large.remove(id);
+        }
+        large.record(2L, NOW, NOW);
+
+        assertEquals(20, large.trackedCount());
+        assertArrayEquals(new long[]{2L, 40L, 38L}, large.rising(0, 3, NOW));
+    }
+
+    private void record(long theoryId, long postedAtMillis, int events) {
+        for (int i = 0; i < events; i++) {
+            tracker.record(theoryId, postedAtMillis, NOW);
+        }
+    }
+}
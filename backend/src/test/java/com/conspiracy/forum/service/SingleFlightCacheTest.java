@@ -0,0 +1,144 @@
+package com.conspiracy.forum.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SingleFlightCache<Long, String> cache =
+            new SingleFlightCache<>(3, Duration.ofSeconds(10), clock::get);
+
+    @Test
+    void get_ShouldLoadOnce_ForConcurrentMisses() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            Future<String> first = executor.submit(() -> cache.get(1L, key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "theory " + key;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> herd = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                herd.add(executor.submit(() -> cache.get(1L, key -> {
+                    loads.incrementAndGet();
+                    return "duplicate load";
+                })));
+            }
+            release.countDown();
+
+            assertEquals("theory 1", first.get(5, TimeUnit.SECONDS));
+            for (Future<String> waiter : herd) {
+                assertEquals("theory 1", waiter.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void get_ShouldNotCacheLoad_InvalidatedWhileRunning() {
+        String loaded = cache.get(1L, key -> {
+            cache.invalidate(key);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertEquals("fresh", cache.get(1L, key -> "fresh"));
+        assertEquals("fresh", cache.get(1L, key -> "not cached"));
+    }
+
+    @Test
+    void get_ShouldExpireEntries_AfterTtl() {
+        cache.get(1L, key -> "first");
+        clock.addAndGet(Duration.ofSeconds(9).toNanos());
+        assertEquals("first", cache.get(1L, key -> "second"));
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertEquals("second", cache.get(1L, key -> "second"));
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        for (long id = 1; id <= 3; id++) {
+            cache.get(id, key -> "theory " + key);
+        }
+        cache.get(1L, key -> "reloaded");
+
+        cache.get(4L, key -> "theory 4");
+
+        assertEquals(3, cache.size());
+        assertEquals("theory 1", cache.get(1L, key -> "reloaded"));
+        assertEquals("reloaded", cache.get(2L, key -> "reloaded"));
+    }
+
+    @Test
+    void get_ShouldNotCacheAbsentValues_OrFailures() {
+        assertNull(cache.get(1L, key -> null));
+        assertThrows(IllegalStateException.class, () -> cache.get(2L, key -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals(0, cache.size());
+        assertEquals("theory 2", cache.get(2L, key -> "theory 2"));
+    }
+
+    @Test
+    void getAll_ShouldBatchMisses_AndSkipAbsentKeys() {
+        cache.get(1L, key -> "cached");
+        List<List<Long>> batches = new ArrayList<>();
+
+        Map<Long, String> found = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            batches.add(List.copyOf(missing));
+            return missing.stream().filter(id -> id != 3L)
+                    .collect(Collectors.toMap(id -> id, id -> "loaded " + id));
+        });
+
+        assertEquals(Map.of(1L, "cached", 2L, "loaded 2"), found);
+        assertEquals(1, batches.size());
+        assertEquals(List.of(2L, 3L), batches.get(0).stream().sorted().toList());
+        assertEquals("loaded 2", cache.get(2L, key -> "not cached"));
+    }
+
+    @Test
+    void invalidateIf_ShouldDropMatchingKeysOnly() {
+        for (long id = 1; id <= 3; id++) {
+            cache.get(id, key -> "theory " + key);
+        }
+
+        cache.invalidateIf(key -> key % 2 == 1);
+
+        assertEquals(1, cache.size());
+        assertEquals("theory 2", cache.get(2L, key -> "reloaded"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.TheorySort;
+import com.conspiracy.forum.exception.ResourceNotFoundException;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not transactional: the cache only sees committed writes
+@SpringBootTest(properties = "forum.cache.theory-size=100")
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class TheoryCacheTest {
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User author;
+    private List<Theory> theories;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        author = userRepository.save(User.builder()
+                .username("cached")
+                .email("cached@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+
+        theories = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            theories.add(theoryService.createTheory(TheoryInput.builder()
+                    .title("Cached theory " + i)
+                    .content("Cached theory content number " + i + ".")
+                    .evidenceUrls(List.of("https://example.com/" + i))
+                    .build(), author.getUsername()));
+        }
+    }
+
+    @Test
+    void getTheoryById_ShouldServeRepeatedReadsFromMemory() {
+        Long id = theories.get(0).getId();
+        Statistics statistics = statistics();
+
+        theoryService.getTheoryById(id);
+        Theory cached = theoryService.getTheoryById(id);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("Cached theory 0", cached.getTitle());
+        assertEquals(List.of("https://example.com/0"), cached.getEvidenceUrls());
+    }
+
+    @Test
+    void getTheoryById_ShouldLoadOnce_UnderConcurrentMisses() throws Exception {
+        Long id = theories.get(1).getId();
+        int readers = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(readers);
+        Statistics statistics = statistics();
+        try {
+            List<Future<Theory>> reads = new ArrayList<>();
+            for (int i = 0; i < readers; i++) {
+                reads.add(executor.submit(() -> {
+                    start.await();
+                    return theoryService.getTheoryById(id);
+                }));
+            }
+            start.countDown();
+
+            for (Future<Theory> read : reads) {
+                assertEquals(id, read.get(10, TimeUnit.SECONDS).getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void getTheoryById_ShouldSeeWrites_AfterInvalidation() {
+        Theory theory = theories.get(0);
+        User voter = userRepository.save(User.builder()
+                .username("cachevoter")
+                .email("cachevoter@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+        theoryService.getTheoryById(theory.getId());
+
+        theoryService.updateTheory(theory.getId(), TheoryInput.builder().title("Renamed theory").build(),
+                author.getUsername());
+        assertEquals("Renamed theory", theoryService.getTheoryById(theory.getId()).getTitle());
+
+        voteService.voteTheory(voter.getId(), theory.getId(), 1);
+        assertEquals(1, theoryService.getTheoryById(theory.getId()).getScore());
+
+        commentService.createComment(CommentInput.builder()
+                .content("A comment that changes the count.")
+                .theoryId(theory.getId())
+                .build(), author.getUsername());
+        assertEquals(1, theoryService.getTheoryById(theory.getId()).getCommentCount());
+
+        Long unvotedId = theories.get(1).getId();
+        theoryService.getTheoryById(unvotedId);
+        theoryService.deleteTheory(unvotedId, author.getUsername());
+        assertThrows(ResourceNotFoundException.class, () -> theoryService.getTheoryById(unvotedId));
+    }
+
+    @Test
+    void getTheorySlice_ShouldServeLeadingPagesFromMemory() {
+        PageInput firstPage = PageInput.builder().page(1).size(2).build();
+        theoryService.getTheorySlice(null, firstPage);
+        Statistics statistics = statistics();
+
+        List<String> titles = theoryService.getTheorySlice(null, firstPage).map(Theory::getTitle).getContent();
+
+        // The id list is cached at once; the theories behind it are loaded in one batch the first time
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of("Cached theory 2", "Cached theory 1"), titles);
+        assertTrue(theoryService.getTheorySlice(null, firstPage).hasNext());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void voteTheory_ShouldKeepNewPages_AndReorderTopPages() {
+        PageInput firstPage = PageInput.builder().page(1).size(2).build();
+        TheoryFilter top = TheoryFilter.builder().sort(TheorySort.TOP).build();
+        User voter = userRepository.save(User.builder()
+                .username("topvoter")
+                .email("topvoter@example.com")
+                .password(passwordEncoder.encode("password123"))
+                .build());
+        // The second read hydrates the NEW page into the theory cache
+        theoryService.getTheorySlice(null, firstPage);
+        theoryService.getTheorySlice(null, firstPage);
+        theoryService.getTheorySlice(top, firstPage);
+
+        voteService.voteTheory(voter.getId(), theories.get(0).getId(), 1);
+
+        assertEquals(List.of("Cached theory 0", "Cached theory 2"),
+                theoryService.getTheorySlice(top, firstPage).map(Theory::getTitle).getContent());
+        Statistics statistics = statistics();
+        assertEquals(List.of("Cached theory 2", "Cached theory 1"),
+                theoryService.getTheorySlice(null, firstPage).map(Theory::getTitle).getContent());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void createTheory_ShouldInvalidateCachedPages() {
+        PageInput firstPage = PageInput.builder().page(1).size(2).build();
+        theoryService.getTheorySlice(null, firstPage);
+
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Brand new theory")
+                .content("Brand new theory content for the first page.")
+                .build(), author.getUsername());
+
+        assertEquals(List.of("Brand new theory", "Cached theory 2"),
+                theoryService.getTheorySlice(null, firstPage).map(Theory::getTitle).getContent());
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
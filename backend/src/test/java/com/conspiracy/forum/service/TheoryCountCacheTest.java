@@ -0,0 +1,160 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.CountedPage;
+import com.conspiracy.forum.dto.PageInput;
+import com.conspiracy.forum.dto.TheoryFilter;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.TheoryStatus;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: invalidation only happens once the writing transaction commits
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class TheoryCountCacheTest {
+
+    @Autowired
+    private TheoryCountCache theoryCountCache;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+        theoryCountCache.invalidate();
+
+        testUser = userRepository.save(User.builder()
+                .username("counter")
+                .email("counter@example.com")
+                .password("password123")
+                .build());
+    }
+
+    @Test
+    void getTheories_ShouldReuseCachedTotal_UntilATheoryIsCreatedOrDeleted() {
+        createTheory("Counted theory one", TheoryStatus.CONFIRMED);
+        createTheory("Counted theory two", TheoryStatus.CONFIRMED);
+        Theory third = createTheory("Counted theory three", TheoryStatus.DEBUNKED);
+        TheoryFilter confirmed = TheoryFilter.builder().status(TheoryStatus.CONFIRMED).build();
+        PageInput firstPage = PageInput.builder().page(1).size(1).build();
+
+        assertEquals(2, theoryService.getTheories(confirmed, firstPage).getTotalElements());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CountedPage<Theory> cached = theoryService.getTheories(confirmed, firstPage);
+
+        assertEquals(2, cached.getTotalElements());
+        assertFalse(cached.isEstimate());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        createTheory("Counted theory four", TheoryStatus.CONFIRMED);
+        assertEquals(3, theoryService.getTheories(confirmed, firstPage).getTotalElements());
+        assertEquals(4, theoryService.getTheories(null, firstPage).getTotalElements());
+
+        theoryService.deleteTheory(third.getId(), testUser.getUsername());
+        assertEquals(3, theoryService.getTheories(null, firstPage).getTotalElements());
+    }
+
+    @Test
+    void getTheories_ShouldCacheKeywordTotals_PerKeywordAndStatus() {
+        Theory first = createTheory("Lizard people run the bank", TheoryStatus.CONFIRMED);
+        createTheory("Lizard people run the post office", TheoryStatus.CONFIRMED);
+        createTheory("Lizard people run the weather", TheoryStatus.DEBUNKED);
+        TheoryFilter lizards = TheoryFilter.builder().keyword("lizard").build();
+        TheoryFilter confirmedLizards = TheoryFilter.builder().keyword("Lizard ").status(TheoryStatus.CONFIRMED).build();
+        PageInput firstPage = PageInput.builder().page(1).size(1).build();
+
+        assertEquals(3, theoryService.getTheories(lizards, firstPage).getTotalElements());
+        assertEquals(2, theoryService.getTheories(confirmedLizards, firstPage).getTotalElements());
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CountedPage<Theory> cached = theoryService.getTheories(lizards, firstPage);
+
+        assertEquals(3, cached.getTotalElements());
+        assertFalse(cached.isEstimate());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        createTheory("Lizard people run the railways", TheoryStatus.CONFIRMED);
+        assertEquals(4, theoryService.getTheories(lizards, firstPage).getTotalElements());
+
+        theoryService.updateTheory(first.getId(), TheoryInput.builder()
+                .title("Reptilians run the bank")
+                .content("Content that is long enough to be valid.")
+                .build(), testUser.getUsername());
+        assertEquals(2, theoryService.getTheories(confirmedLizards, firstPage).getTotalElements());
+    }
+
+    @Test
+    void getTheories_ShouldRecountHotTheories_WhenCommentsChange() {
+        Theory first = createTheory("Hot counted theory one", TheoryStatus.UNVERIFIED);
+        Theory second = createTheory("Hot counted theory two", TheoryStatus.UNVERIFIED);
+        addComment(first);
+        TheoryFilter hot = TheoryFilter.builder().hotOnly(true).minCommentCount(1).build();
+        PageInput firstPage = PageInput.builder().page(1).size(1).build();
+
+        assertEquals(1, theoryService.getTheories(hot, firstPage).getTotalElements());
+
+        addComment(second);
+
+        assertEquals(2, theoryService.getTheories(hot, firstPage).getTotalElements());
+    }
+
+    private Theory createTheory(String title, TheoryStatus status) {
+        return theoryService.createTheory(TheoryInput.builder()
+                .title(title)
+                .content("Content that is long enough to be valid.")
+                .status(status)
+                .build(), testUser.getUsername());
+    }
+
+    private void addComment(Theory theory) {
+        commentService.createComment(CommentInput.builder()
+                .content("A comment that heats things up.")
+                .theoryId(theory.getId())
+                .build(), testUser.getUsername());
+    }
+}
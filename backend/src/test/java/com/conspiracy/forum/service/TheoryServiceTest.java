@@ -6,6 +6,8 @@ import com.conspiracy.forum.dto.TheoryFilter;
 import com.conspiracy.forum.dto.TheoryInput;
 import com.conspiracy.forum.entity.Theory;
 import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.enums.SearchOrder;
+import com.conspiracy.forum.enums.TheorySort;
 import com.conspiracy.forum.enums.TheoryStatus;
 import com.conspiracy.forum.exception.ResourceNotFoundException;
 import com.conspiracy.forum.exception.UnauthorizedException;
@@ -22,6 +24,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -228,4 +231,109 @@ class TheoryServiceTest {
         assertEquals(1, result.getTotalElements());
         assertTrue(result.getContent().get(0).getTitle().contains("Aliens"));
     }
+
+    @Test
+    void getTheories_WithKeywordAndSearchOrder_ShouldStillFilterByStatus() {
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Aliens built the pyramids")
+                .content("Theory about aliens helping with ancient construction.")
+                .status(TheoryStatus.CONFIRMED)
+                .build(), testUser.getUsername());
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Aliens run the government")
+                .content("Theory about aliens hiding in plain sight in politics.")
+                .status(TheoryStatus.DEBUNKED)
+                .build(), testUser.getUsername());
+
+        TheoryFilter filter = TheoryFilter.builder()
+                .keyword("aliens")
+                .status(TheoryStatus.CONFIRMED)
+                .searchOrder(SearchOrder.RECENT)
+                .build();
+        PageInput pageInput = PageInput.builder().page(1).size(10).build();
+
+        Page<Theory> result = theoryService.getTheories(filter, pageInput);
+
+        assertEquals(1, result.getTotalElements());
+        assertEquals("Aliens built the pyramids", result.getContent().get(0).getTitle());
+    }
+
+    @Test
+    void getHotTheories_ShouldRankTodaysDiscussionAboveOldBusyThread() {
+        Theory old = theoryService.createTheory(TheoryInput.builder()
+                .title("Old busy thread")
+                .content("A thread that collected hundreds of comments long ago.")
+                .build(), testUser.getUsername());
+        old.setPostedAt(LocalDateTime.now().minusYears(2));
+        old.setCommentCount(900);
+        old.refreshHotScore();
+        theoryRepository.save(old);
+
+        Theory fresh = theoryService.createTheory(TheoryInput.builder()
+                .title("Fresh discussion")
+                .content("A thread started today with only a handful of comments.")
+                .build(), testUser.getUsername());
+        fresh.setCommentCount(5);
+        fresh.refreshHotScore();
+        theoryRepository.save(fresh);
+
+        List<Theory> hot = theoryService.getHotTheories(PageInput.builder().page(1).size(10).build()).getContent();
+
+        assertEquals(List.of("Fresh discussion", "Old busy thread"), hot.stream().map(Theory::getTitle).toList());
+    }
+
+    @Test
+    void getHotTheories_ShouldRankNewTheoryAboveHeavilyVotedOneFromLastWeek() {
+        Theory veteran = theoryService.createTheory(TheoryInput.builder()
+                .title("Heavily voted theory")
+                .content("A theory that collected ten thousand votes last week.")
+                .build(), testUser.getUsername());
+        veteran.setPostedAt(LocalDateTime.now().minusDays(8));
+        veteran.setScore(10000);
+        veteran.refreshHotScore();
+        theoryRepository.save(veteran);
+
+        theoryService.createTheory(TheoryInput.builder()
+                .title("Brand new theory")
+                .content("A theory posted a moment ago without any votes.")
+                .build(), testUser.getUsername());
+
+        List<Theory> hot = theoryService.getHotTheories(PageInput.builder().page(1).size(10).build()).getContent();
+
+        assertEquals(List.of("Brand new theory", "Heavily voted theory"), hot.stream().map(Theory::getTitle).toList());
+    }
+
+    @Test
+    void getTheories_WithSort_ShouldOrderByTopAndControversial() {
+        Theory popular = createTheoryWithVotes("Popular theory", 40, 2);
+        Theory divisive = createTheoryWithVotes("Divisive theory", 30, 29);
+        Theory ignored = createTheoryWithVotes("Ignored theory", 0, 0);
+        PageInput pageInput = PageInput.builder().page(1).size(10).build();
+
+        List<String> top = theoryService.getTheorySlice(TheoryFilter.builder().sort(TheorySort.TOP).build(), pageInput)
+                .map(Theory::getTitle).getContent();
+        List<String> controversial = theoryService.getTheories(
+                        TheoryFilter.builder().sort(TheorySort.CONTROVERSIAL).build(), pageInput)
+                .map(Theory::getTitle).getContent();
+        List<String> newest = theoryService.getTheorySlice(TheoryFilter.builder().sort(TheorySort.NEW).build(), pageInput)
+                .map(Theory::getTitle).getContent();
+
+        assertEquals(List.of(popular.getTitle(), divisive.getTitle(), ignored.getTitle()), top);
+        assertEquals(List.of(divisive.getTitle(), popular.getTitle(), ignored.getTitle()), controversial);
+        assertEquals(List.of(ignored.getTitle(), divisive.getTitle(), popular.getTitle()), newest);
+    }
+
+    private Theory createTheoryWithVotes(String title, int upvotes, int downvotes) {
+        Theory theory = theoryService.createTheory(TheoryInput.builder()
+                .title(title)
+                .content("A theory that collected " + upvotes + " upvotes and " + downvotes + " downvotes.")
+                .build(), testUser.getUsername());
+        for (int i = 0; i < upvotes; i++) {
+            theory.applyVote(0, 1);
+        }
+        for (int i = 0; i < downvotes; i++) {
+            theory.applyVote(0, -1);
+        }
+        return theoryRepository.save(theory);
+    }
 }
@@ -0,0 +1,109 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.ChangePasswordRequest;
+import com.conspiracy.forum.dto.ForgotPasswordRequest;
+import com.conspiracy.forum.dto.LoginRequest;
+import com.conspiracy.forum.dto.RegisterRequest;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureHttpGraphQlTester
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class TokenVersionRegistryTest {
+
+    private static final String ME = """
+        query {
+            me {
+                username
+            }
+        }
+        """;
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TokenVersionRegistry tokenVersionRegistry;
+
+    // No mail server in tests; forgotPassword would roll back on the send failure
+    @MockBean
+    private EmailService emailService;
+
+    private String username;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        // Fresh usernames, since revoked versions are remembered by username for the life of the context
+        username = "revoked" + System.nanoTime() % 1_000_000;
+        token = authService.register(RegisterRequest.builder()
+                .username(username)
+                .email(username + "@example.com")
+                .password("password123")
+                .build()).getToken();
+    }
+
+    @Test
+    void changePassword_ShouldRevokeExistingTokens() {
+        authService.changePassword(username, ChangePasswordRequest.builder()
+                .currentPassword("password123")
+                .newPassword("password456")
+                .build());
+
+        withToken(token).document(ME).execute().errors().expect(error -> true);
+
+        String reissued = authService.login(LoginRequest.builder()
+                .username(username)
+                .password("password456")
+                .build()).getToken();
+        withToken(reissued).document(ME).execute().path("me.username").entity(String.class).isEqualTo(username);
+    }
+
+    @Test
+    void forgotPassword_ShouldRevokeExistingTokens() {
+        authService.forgotPassword(ForgotPasswordRequest.builder()
+                .email(username + "@example.com")
+                .build());
+
+        withToken(token).document(ME).execute().errors().expect(error -> true);
+    }
+
+    @Test
+    void refresh_ShouldPickUpRevocationsMadeByOtherNodes() {
+        // Another node's revocation only reaches the database
+        User user = userRepository.findByUsername(username).orElseThrow();
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        user.setTokensRevokedAt(LocalDateTime.now());
+        userRepository.save(user);
+
+        withToken(token).document(ME).execute().path("me.username").entity(String.class).isEqualTo(username);
+
+        tokenVersionRegistry.refresh();
+
+        withToken(token).document(ME).execute().errors().expect(error -> true);
+    }
+
+    private HttpGraphQlTester withToken(String bearer) {
+        return graphQlTester.mutate().header("Authorization", "Bearer " + bearer).build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.conspiracy.forum.service;
+
+import com.conspiracy.forum.config.TestMailConfig;
+import com.conspiracy.forum.dto.CommentInput;
+import com.conspiracy.forum.dto.TheoryInput;
+import com.conspiracy.forum.entity.Comment;
+import com.conspiracy.forum.entity.Theory;
+import com.conspiracy.forum.entity.User;
+import com.conspiracy.forum.repository.CommentRepository;
+import com.conspiracy.forum.repository.TheoryRepository;
+import com.conspiracy.forum.repository.UserRepository;
+import com.conspiracy.forum.repository.VoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.graphql.tester.AutoConfigureHttpGraphQlTester;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.graphql.test.tester.HttpGraphQlTester;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Not @Transactional: votes are buffered once their transaction commits
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "forum.votes.write-behind=true",
+        "forum.votes.flush-interval=PT1H"
+})
+@AutoConfigureHttpGraphQlTester
+@ActiveProfiles("test")
+@Import(TestMailConfig.class)
+class VoteCounterBufferTest {
+
+    private static final int VOTERS = 200;
+
+    @Autowired
+    private HttpGraphQlTester graphQlTester;
+
+    @Autowired
+    private VoteService voteService;
+
+    @Autowired
+    private VoteCounterBuffer voteCounterBuffer;
+
+    @Autowired
+    private TheoryService theoryService;
+
+    @Autowired
+    private CommentService commentService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TheoryRepository theoryRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private VoteRepository voteRepository;
+
+    private final List<User> voters = new ArrayList<>();
+    private Theory theory;
+    private Comment comment;
+
+    @BeforeEach
+    void setUp() {
+        voteCounterBuffer.flush();
+        voteRepository.deleteAll();
+        commentRepository.deleteAll();
+        theoryRepository.deleteAll();
+        userRepository.deleteAll();
+
+        voters.clear();
+        for (int i = 0; i < 3; i++) {
+            voters.add(userRepository.save(User.builder()
+                    .username("buffered" + i)
+                    .email("buffered" + i + "@example.com")
+                    .password("password123")
+                    .build()));
+        }
+        theory = theoryService.createTheory(TheoryInput.builder()
+                .title("Buffered theory")
+                .content("A theory whose counters are written behind.")
+                .build(), "buffered0");
+        comment = commentService.createComment(CommentInput.builder()
+                .content("A buffered comment")
+                .theoryId(theory.getId())
+                .build(), "buffered0");
+    }
+
+    @Test
+    void voteTheory_ShouldShowVoteBeforeFlush_AndWriteRowOnFlush() {
+        double hotScoreBefore = theoryRepository.findById(theory.getId()).orElseThrow().getHotScore();
+        voteService.voteTheory(voters.get(1).getId(), theory.getId(), 1);
+
+        assertEquals(0, theoryRepository.findById(theory.getId()).orElseThrow().getScore());
+        assertScore(1);
+
+        voteCounterBuffer.flush();
+
+        Theory stored = theoryRepository.findById(theory.getId()).orElseThrow();
+        assertEquals(1, stored.getScore());
+        assertEquals(1, stored.getUpvotes());
+        assertEquals(0, stored.getDownvotes());
+        assertTrue(stored.getHotScore() > hotScoreBefore);
+        // Pending counters were drained, so the merged read does not count the vote twice
+        assertScore(1);
+    }
+
+    @Test
+    void flush_ShouldApplyAllBufferedVotes_AndRefreshRankings() {
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), 1);
+        voteService.voteTheory(voters.get(1).getId(), theory.getId(), 1);
+        voteService.voteTheory(voters.get(2).getId(), theory.getId(), -1);
+        // Flipped to a downvote, then withdrawn
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), -1);
+        voteService.voteTheory(voters.get(0).getId(), theory.getId(), -1);
+
+        voteCounterBuffer.flush();
+
+        Theory stored = theoryRepository.findById(theory.getId()).orElseThrow();
+        assertEquals(0, stored.getScore());
+        assertEquals(1, stored.getUpvotes());
+        assertEquals(1, stored.getDownvotes());
+        assertEquals(2.0, stored.getControversy(), 1e-9);
+        assertEquals(2, voteRepository.count());
+    }
+
+    @Test
+    void voteComment_ShouldBufferCounters_UntilFlush() {
+        voteService.voteComment(voters.get(1).getId(), comment.getId(), -1);
+        voteService.voteComment(voters.get(2).getId(), comment.getId(), -1);
+
+        Comment unflushed = commentRepository.findById(comment.getId()).orElseThrow();
+        assertEquals(0, unflushed.getScore());
+        assertEquals(-2, voteCounterBuffer.pendingFor(unflushed).score());
+
+        voteCounterBuffer.flush();
+
+        Comment stored = commentRepository.findById(comment.getId()).orElseThrow();
+        assertEquals(-2, stored.getScore());
+        assertEquals(2, stored.getDownvotes());
+        assertEquals(0, voteCounterBuffer.pendingFor(stored).score());
+        // A row read before the flush committed still gets the flushed votes added
+        assertEquals(-2, voteCounterBuffer.pendingFor(unflushed).score());
+    }
+
+    @Test
+    void pendingReads_ShouldNeitherDipNorDoubleCount_WhileFlushing() throws Exception {
+        List<User> crowd = new ArrayList<>();
+        for (int i = 0; i < VOTERS; i++) {
+            crowd.add(userRepository.save(User.builder()
+                    .username("crowd" + i)
+                    .email("crowd" + i + "@example.com")
+                    .password("password123")
+                    .build()));
+        }
+
+        AtomicBoolean voting = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> flushes = executor.submit(() -> {
+                while (voting.get()) {
+                    voteCounterBuffer.flush();
+                }
+            });
+            // Only upvotes arrive, so every read must be at least the one before and never above the votes cast
+            Future<Integer> reads = executor.submit(() -> {
+                int last = 0;
+                int count = 0;
+                while (voting.get()) {
+                    Theory row = theoryRepository.findById(theory.getId()).orElseThrow();
+                    int score = row.getScore() + voteCounterBuffer.pendingFor(row).score();
+                    assertTrue(score >= last, "Score dipped from " + last + " to " + score);
+                    assertTrue(score <= VOTERS, "Score " + score + " counts votes twice");
+                    last = score;
+                    count++;
+                }
+                return count;
+            });
+            for (User voter : crowd) {
+                voteService.voteTheory(voter.getId(), theory.getId(), 1);
+            }
+            voting.set(false);
+            flushes.get();
+            assertTrue(reads.get() > 0);
+        } finally {
+            executor.shutdown();
+        }
+
+        voteCounterBuffer.flush();
+        Theory stored = theoryRepository.findById(theory.getId()).orElseThrow();
+        assertEquals(VOTERS, stored.getScore());
+        assertEquals(VOTERS, stored.getUpvotes());
+        assertEquals(0, voteCounterBuffer.pendingFor(stored).score());
+    }
+
+    private void assertScore(int expected) {
+        graphQlTester.document("""
+                query($id: ID!) {
+                    theory(id: $id) {
+                        score
+                        upvotes
+                    }
+                }
+                """)
+                .variable("id", theory.getId())
+                .execute()
+                .path("theory.score").entity(Integer.class).isEqualTo(expected)
+                .path("theory.upvotes").entity(Integer.class).isEqualTo(expected);
+    }
+}
@@ -36,6 +36,9 @@ class VoteServiceTest {
     @Autowired
     private CommentService commentService;
 
+    @Autowired
+    private UserService userService;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -85,63 +88,62 @@ class VoteServiceTest {
 
     @Test
     void voteTheory_ShouldUpvote_WhenValueIsOne() {
-        Theory result = voteService.voteTheory(testUser, testTheory.getId(), 1);
+        Theory result = voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
 
         assertEquals(1, result.getScore());
     }
 
     @Test
     void voteTheory_ShouldDownvote_WhenValueIsMinusOne() {
-        Theory result = voteService.voteTheory(testUser, testTheory.getId(), -1);
+        Theory result = voteService.voteTheory(testUser.getId(), testTheory.getId(), -1);
 
         assertEquals(-1, result.getScore());
     }
 
     @Test
     void voteTheory_ShouldRemoveVote_WhenVotingSameValueTwice() {
-        voteService.voteTheory(testUser, testTheory.getId(), 1);
-        Theory result = voteService.voteTheory(testUser, testTheory.getId(), 1);
+        voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
+        Theory result = voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
 
         assertEquals(0, result.getScore());
     }
 
     @Test
     void voteTheory_ShouldChangeVote_WhenVotingDifferentValue() {
-        voteService.voteTheory(testUser, testTheory.getId(), 1);
-        Theory result = voteService.voteTheory(testUser, testTheory.getId(), -1);
+        voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
+        Theory result = voteService.voteTheory(testUser.getId(), testTheory.getId(), -1);
 
         assertEquals(-1, result.getScore());
     }
 
     @Test
     void voteTheory_ShouldUpdateAuthorReputation() {
-        int initialReputation = otherUser.getReputation();
+        int initialReputation = userService.getReputation(otherUser.getId());
 
-        voteService.voteTheory(testUser, testTheory.getId(), 1);
+        voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
 
-        User updatedAuthor = userRepository.findById(otherUser.getId()).orElseThrow();
-        assertEquals(initialReputation + 1, updatedAuthor.getReputation());
+        assertEquals(initialReputation + 1, userService.getReputation(otherUser.getId()));
     }
 
     @Test
     void voteTheory_ShouldThrow_WhenInvalidValue() {
         assertThrows(IllegalArgumentException.class, 
-                () -> voteService.voteTheory(testUser, testTheory.getId(), 0));
+                () -> voteService.voteTheory(testUser.getId(), testTheory.getId(), 0));
         assertThrows(IllegalArgumentException.class, 
-                () -> voteService.voteTheory(testUser, testTheory.getId(), 2));
+                () -> voteService.voteTheory(testUser.getId(), testTheory.getId(), 2));
     }
 
     @Test
     void voteTheory_ShouldThrow_WhenTheoryNotFound() {
         assertThrows(RuntimeException.class, 
-                () -> voteService.voteTheory(testUser, 99999L, 1));
+                () -> voteService.voteTheory(testUser.getId(), 99999L, 1));
     }
 
     @Test
     void voteComment_ShouldUpvote_WhenValueIsOne() {
         Comment comment = createTestComment();
 
-        Comment result = voteService.voteComment(testUser, comment.getId(), 1);
+        Comment result = voteService.voteComment(testUser.getId(), comment.getId(), 1);
 
         assertEquals(1, result.getScore());
     }
@@ -150,7 +152,7 @@ class VoteServiceTest {
     void voteComment_ShouldDownvote_WhenValueIsMinusOne() {
         Comment comment = createTestComment();
 
-        Comment result = voteService.voteComment(testUser, comment.getId(), -1);
+        Comment result = voteService.voteComment(testUser.getId(), comment.getId(), -1);
 
         assertEquals(-1, result.getScore());
     }
@@ -159,8 +161,8 @@ class VoteServiceTest {
     void voteComment_ShouldRemoveVote_WhenVotingSameValueTwice() {
         Comment comment = createTestComment();
 
-        voteService.voteComment(testUser, comment.getId(), 1);
-        Comment result = voteService.voteComment(testUser, comment.getId(), 1);
+        voteService.voteComment(testUser.getId(), comment.getId(), 1);
+        Comment result = voteService.voteComment(testUser.getId(), comment.getId(), 1);
 
         assertEquals(0, result.getScore());
     }
@@ -169,8 +171,8 @@ class VoteServiceTest {
     void voteComment_ShouldChangeVote_WhenVotingDifferentValue() {
         Comment comment = createTestComment();
 
-        voteService.voteComment(testUser, comment.getId(), 1);
-        Comment result = voteService.voteComment(testUser, comment.getId(), -1);
+        voteService.voteComment(testUser.getId(), comment.getId(), 1);
+        Comment result = voteService.voteComment(testUser.getId(), comment.getId(), -1);
 
         assertEquals(-1, result.getScore());
     }
@@ -179,12 +181,11 @@ class VoteServiceTest {
     void voteComment_ShouldUpdateAuthorReputation() {
         Comment comment = createTestComment();
         User commentAuthor = comment.getAuthor();
-        int initialReputation = commentAuthor.getReputation();
+        int initialReputation = userService.getReputation(commentAuthor.getId());
 
-        voteService.voteComment(testUser, comment.getId(), 1);
+        voteService.voteComment(testUser.getId(), comment.getId(), 1);
 
-        User updatedAuthor = userRepository.findById(commentAuthor.getId()).orElseThrow();
-        assertEquals(initialReputation + 1, updatedAuthor.getReputation());
+        assertEquals(initialReputation + 1, userService.getReputation(commentAuthor.getId()));
     }
 
     @Test
@@ -192,15 +193,15 @@ class VoteServiceTest {
         Comment comment = createTestComment();
 
         assertThrows(IllegalArgumentException.class, 
-                () -> voteService.voteComment(testUser, comment.getId(), 0));
+                () -> voteService.voteComment(testUser.getId(), comment.getId(), 0));
         assertThrows(IllegalArgumentException.class, 
-                () -> voteService.voteComment(testUser, comment.getId(), 2));
+                () -> voteService.voteComment(testUser.getId(), comment.getId(), 2));
     }
 
     @Test
     void voteComment_ShouldThrow_WhenCommentNotFound() {
         assertThrows(RuntimeException.class, 
-                () -> voteService.voteComment(testUser, 99999L, 1));
+                () -> voteService.voteComment(testUser.getId(), 99999L, 1));
     }
 
     private Comment createTestComment() {
@@ -211,4 +212,51 @@ class VoteServiceTest {
                 .build();
         return commentRepository.save(comment);
     }
+
+    @Test
+    void voteTheory_ShouldRefreshHotScore() {
+        double before = testTheory.getHotScore();
+
+        Theory upvoted = voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
+        assertTrue(upvoted.getHotScore() > before);
+
+        Theory downvoted = voteService.voteTheory(testUser.getId(), testTheory.getId(), -1);
+        assertTrue(downvoted.getHotScore() < before);
+    }
+
+    @Test
+    void voteTheory_ShouldTrackUpvotesAndDownvotesSeparately() {
+        voteService.voteTheory(testUser.getId(), testTheory.getId(), 1);
+        Theory split = voteService.voteTheory(otherUser.getId(), testTheory.getId(), -1);
+
+        assertEquals(0, split.getScore());
+        assertEquals(1, split.getUpvotes());
+        assertEquals(1, split.getDownvotes());
+        assertTrue(split.getControversy() > 0);
+
+        Theory switched = voteService.voteTheory(testUser.getId(), testTheory.getId(), -1);
+        assertEquals(0, switched.getUpvotes());
+        assertEquals(2, switched.getDownvotes());
+        assertEquals(0, switched.getControversy());
+
+        Theory withdrawn = voteService.voteTheory(otherUser.getId(), testTheory.getId(), -1);
+        assertEquals(-1, withdrawn.getScore());
+        assertEquals(0, withdrawn.getUpvotes());
+        assertEquals(1, withdrawn.getDownvotes());
+    }
+
+    @Test
+    void voteComment_ShouldTrackUpvotesAndDownvotesSeparately() {
+        Comment comment = createTestComment();
+
+        voteService.voteComment(testUser.getId(), comment.getId(), -1);
+        Comment switched = voteService.voteComment(testUser.getId(), comment.getId(), 1);
+        assertEquals(1, switched.getUpvotes());
+        assertEquals(0, switched.getDownvotes());
+
+        Comment split = voteService.voteComment(otherUser.getId(), comment.getId(), -1);
+        assertEquals(0, split.getScore());
+        assertEquals(1, split.getUpvotes());
+        assertEquals(1, split.getDownvotes());
+    }
 }
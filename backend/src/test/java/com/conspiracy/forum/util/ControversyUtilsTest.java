@@ -0,0 +1,26 @@
+package com.conspiracy.forum.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControversyUtilsTest {
+
+    @Test
+    void compute_ShouldBeZero_WithoutDisagreement() {
+        assertEquals(0, ControversyUtils.compute(0, 0));
+        assertEquals(0, ControversyUtils.compute(500, 0));
+        assertEquals(0, ControversyUtils.compute(0, 3));
+    }
+
+    @Test
+    void compute_ShouldFavourEvenSplits_AtEqualVolume() {
+        assertTrue(ControversyUtils.compute(50, 50) > ControversyUtils.compute(90, 10));
+    }
+
+    @Test
+    void compute_ShouldFavourVolume_AtEqualSplit() {
+        assertTrue(ControversyUtils.compute(500, 498) > ControversyUtils.compute(2, 2));
+        assertEquals(ControversyUtils.compute(3, 7), ControversyUtils.compute(7, 3));
+    }
+}
@@ -0,0 +1,38 @@
+package com.conspiracy.forum.util;
+
+import com.conspiracy.forum.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorUtilsTest {
+
+    @Test
+    void decodeTimestamp_ShouldRoundTripEncodedCursor() {
+        LocalDateTime postedAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123456000);
+
+        String cursor = CursorUtils.encode(postedAt, 42L);
+        CursorUtils.TimestampCursor decoded = CursorUtils.decodeTimestamp(cursor);
+
+        assertEquals(postedAt, decoded.timestamp());
+        assertEquals(42L, decoded.id());
+    }
+
+    @Test
+    void decodeTimestamp_ShouldStartFromTheTop_WhenCursorIsNull() {
+        CursorUtils.TimestampCursor decoded = CursorUtils.decodeTimestamp(null);
+
+        assertTrue(decoded.timestamp().isAfter(LocalDateTime.now().plusYears(100)));
+        assertEquals(Long.MAX_VALUE, decoded.id());
+    }
+
+    @Test
+    void decodeTimestamp_ShouldThrow_WhenCursorIsMalformed() {
+        assertThrows(ValidationException.class, () -> CursorUtils.decodeTimestamp("%%%"));
+        assertThrows(ValidationException.class, () -> CursorUtils.decodeTimestamp("bm8tc2VwYXJhdG9y"));
+        assertThrows(ValidationException.class,
+                () -> CursorUtils.decodeTimestamp(CursorUtils.encode("yesterday", 1L)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.conspiracy.forum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotScoreUtilsTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void compute_ShouldFavourNewerTheories_WithEqualEngagement() {
+        double today = HotScoreUtils.compute(10, 5, NOW.minusHours(1));
+        double lastWeek = HotScoreUtils.compute(10, 5, NOW.minusDays(7));
+
+        assertTrue(today > lastWeek);
+    }
+
+    @Test
+    void compute_ShouldFavourMoreEngagement_AtEqualAge() {
+        double quiet = HotScoreUtils.compute(1, 0, NOW.minusHours(3));
+        double busy = HotScoreUtils.compute(1, 4, NOW.minusHours(3));
+
+        assertTrue(busy > quiet);
+    }
+
+    @Test
+    void compute_ShouldLetRecentDiscussionOutrankOldBusyThread() {
+        double oldThread = HotScoreUtils.compute(0, 900, NOW.minusYears(2));
+        double recentThread = HotScoreUtils.compute(0, 5, NOW.minusHours(2));
+
+        assertTrue(recentThread > oldThread);
+    }
+
+    @Test
+    void compute_ShouldRankDownvotedTheoriesBelowUnvotedOnes() {
+        assertTrue(HotScoreUtils.compute(-1, 0, NOW) < HotScoreUtils.compute(0, 0, NOW));
+        assertTrue(HotScoreUtils.compute(0, 0, NOW) < HotScoreUtils.compute(1, 0, NOW));
+    }
+
+    @Test
+    void compute_ShouldNotDependOnWhenItIsEvaluated() {
+        // Ten times the engagement makes up for exactly one order's worth of age
+        double older = HotScoreUtils.compute(999, 0, NOW.minusSeconds((long) HotScoreUtils.SECONDS_PER_ORDER));
+        double newer = HotScoreUtils.compute(99, 0, NOW);
+
+        assertEquals(newer, older, 1e-9);
+    }
+}
@@ -1,10 +1,13 @@
 package com.conspiracy.forum.util;
 
 import com.conspiracy.forum.dto.PageInput;
+import graphql.relay.Connection;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class PaginationUtilsTest {
@@ -103,4 +106,34 @@ class PaginationUtilsTest {
         assertEquals("title", sort.iterator().next().getProperty());
         assertEquals(Sort.Direction.ASC, sort.iterator().next().getDirection());
     }
+
+    @Test
+    void resolveFirst_ShouldApplyDefaultAndBounds() {
+        assertEquals(10, PaginationUtils.resolveFirst(null));
+        assertEquals(1, PaginationUtils.resolveFirst(0));
+        assertEquals(100, PaginationUtils.resolveFirst(500));
+        assertEquals(25, PaginationUtils.resolveFirst(25));
+    }
+
+    @Test
+    void toConnection_ShouldTrimExtraRowAndReportNextPage() {
+        Connection<String> connection = PaginationUtils.toConnection(
+                List.of("a", "b", "c"), 2, false, value -> "cursor-" + value);
+
+        assertEquals(2, connection.getEdges().size());
+        assertTrue(connection.getPageInfo().isHasNextPage());
+        assertFalse(connection.getPageInfo().isHasPreviousPage());
+        assertEquals("cursor-a", connection.getPageInfo().getStartCursor().getValue());
+        assertEquals("cursor-b", connection.getPageInfo().getEndCursor().getValue());
+    }
+
+    @Test
+    void toConnection_ShouldHandleEmptyPage() {
+        Connection<String> connection = PaginationUtils.toConnection(List.of(), 2, true, value -> value);
+
+        assertTrue(connection.getEdges().isEmpty());
+        assertFalse(connection.getPageInfo().isHasNextPage());
+        assertTrue(connection.getPageInfo().isHasPreviousPage());
+        assertNull(connection.getPageInfo().getEndCursor());
+    }
 }
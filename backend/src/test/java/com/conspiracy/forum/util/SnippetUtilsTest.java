@@ -0,0 +1,42 @@
+package com.conspiracy.forum.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnippetUtilsTest {
+
+    private static final Pattern MOON = Pattern.compile("moon", Pattern.CASE_INSENSITIVE);
+
+    @Test
+    void highlight_ShouldMarkEveryMatch_InShortContent() {
+        assertEquals("The <b>Moon</b> is a hollow <b>moon</b>.",
+                SnippetUtils.highlight("The Moon is a hollow moon.", MOON));
+    }
+
+    @Test
+    void highlight_ShouldCenterOnFirstMatch_AndTrimOnWordBoundaries() {
+        String content = "word ".repeat(40) + "the moon landing " + "filler ".repeat(60);
+
+        String snippet = SnippetUtils.highlight(content, MOON);
+
+        assertTrue(snippet.startsWith("...word "));
+        assertTrue(snippet.contains("the <b>moon</b> landing"));
+        assertTrue(snippet.endsWith("filler..."));
+        assertTrue(snippet.length() < 230);
+    }
+
+    @Test
+    void highlight_ShouldEscapeContent_LeavingOnlyTheMarkersAsMarkup() {
+        assertEquals("&lt;img src=x onerror=&quot;alert(&#39;<b>moon</b>&#39;)&quot;&gt; &amp; <b>Moon</b>",
+                SnippetUtils.highlight("<img src=x onerror=\"alert('moon')\"> & Moon", MOON));
+    }
+
+    @Test
+    void highlight_ShouldFallBackToLeadingText_WhenNothingMatches() {
+        assertEquals("No celestial bodies here.", SnippetUtils.highlight("No celestial bodies here.", MOON));
+        assertEquals("", SnippetUtils.highlight(null, MOON));
+    }
+}
@@ -6,7 +6,7 @@ import { useAuth } from '../context/AuthContext';
 
 export default function ChangePasswordPage() {
   const navigate = useNavigate();
-  const { isAuthenticated, clearMustChangePassword } = useAuth();
+  const { isAuthenticated, user, login, clearMustChangePassword } = useAuth();
   
   const [currentPassword, setCurrentPassword] = useState('');
   const [newPassword, setNewPassword] = useState('');
@@ -46,6 +46,10 @@ export default function ChangePasswordPage() {
           },
         },
       });
+      // Changing the password revokes the current token, so sign in again with the new one
+      if (user) {
+        await login({ username: user.username, password: newPassword });
+      }
       setSuccess(true);
       setCurrentPassword('');
       setNewPassword('');
@@ -1,4 +1,7 @@
 
+-- Bootstraps the V1 schema and seed data for the populator; the backend's Flyway
+-- migrations (backend/src/main/resources/db/migration) baseline on it and add the rest.
+DROP TABLE IF EXISTS flyway_schema_history;
 DROP TABLE IF EXISTS votes;
 DROP TABLE IF EXISTS comments;
 DROP TABLE IF EXISTS theory_evidence_urls;